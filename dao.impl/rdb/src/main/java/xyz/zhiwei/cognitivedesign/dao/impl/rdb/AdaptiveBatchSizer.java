@@ -0,0 +1,139 @@
+package xyz.zhiwei.cognitivedesign.dao.impl.rdb;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自适应批处理大小
+ * 爬山法：按每次刷盘的行数与耗时计算吞吐，吞吐提升时沿当前方向继续调整刷盘行数，下降时反向；
+ * 单次刷盘耗时超过上限时乘性收缩。刷盘行数受字节预算约束（按观测到的平均行字节数折算），避免超过数据库单包上限。
+ */
+public class AdaptiveBatchSizer {
+	
+	public static final int DEFAULT_MIN_SIZE = 10;
+	public static final int DEFAULT_MAX_SIZE = 5000;
+	
+	// 每次调整的倍数
+	private static final double STEP = 1.25;
+	// 超过耗时上限时的收缩系数
+	private static final double BACKOFF = 0.75;
+	// 吞吐低于平滑吞吐的该比例时视为下降
+	private static final double TOLERANCE = 0.95;
+	// 平滑系数：每个样本所占的比例
+	private static final double SMOOTHING = 0.3;
+	// 刷盘行数不足当前大小的该比例时（如列表末尾），只更新行字节数，不参与调整
+	private static final double MIN_FILL = 0.5;
+
+	private final String name;
+	private final int minSize;
+	private final int maxSize;
+	private final long latencyCeilingNanos;
+	private final long byteBudget;
+	
+	private final ReentrantLock lock = new ReentrantLock();
+	private volatile int currentSize;
+	private double size;
+	private int direction = 1;
+	private double rowsPerSecond;
+	private double rowBytes;
+	private long lastFlushNanos;
+	private long flushes;
+	
+	
+	/**
+	 * @param name
+	 * @param initialSize 初始刷盘行数
+	 * @param minSize
+	 * @param maxSize
+	 * @param latencyCeilingMillis 单次刷盘耗时上限
+	 * @param byteBudget 单次刷盘字节预算；小于等于0时不限
+	 */
+	public AdaptiveBatchSizer(String name, int initialSize, int minSize, int maxSize, long latencyCeilingMillis, long byteBudget) {
+		this.name = name;
+		this.minSize = Math.max(1, minSize);
+		this.maxSize = Math.max(this.minSize, maxSize);
+		this.latencyCeilingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, latencyCeilingMillis));
+		this.byteBudget = byteBudget;
+		this.size = Math.max(this.minSize, Math.min(this.maxSize, initialSize));
+		this.currentSize = (int) size;
+	}
+	
+	
+	/**
+	 * 当前刷盘行数
+	 * @return
+	 */
+	public int size() {
+		return currentSize;
+	}
+	
+	
+	/**
+	 * 记录一次刷盘
+	 * @param rows 本次刷盘的行数
+	 * @param bytes 本次刷盘的估算字节数
+	 * @param latencyNanos 刷盘耗时
+	 */
+	public void record(int rows, long bytes, long latencyNanos) {
+		if (rows <= 0 || latencyNanos <= 0) {
+			return;
+		}
+		lock.lock();
+		try {
+			double sampleRowBytes = (double) bytes / rows;
+			rowBytes = rowBytes <= 0 ? sampleRowBytes : rowBytes + (sampleRowBytes - rowBytes) * SMOOTHING;
+			lastFlushNanos = latencyNanos;
+			flushes++;
+			
+			if (latencyNanos > latencyCeilingNanos) {
+				size *= BACKOFF;
+				direction = -1;
+			} else if (rows >= size * MIN_FILL) {
+				double sampleRowsPerSecond = rows * 1e9 / latencyNanos;
+				if (rowsPerSecond > 0 && sampleRowsPerSecond < rowsPerSecond * TOLERANCE) {
+					direction = -direction;
+				}
+				rowsPerSecond = rowsPerSecond <= 0 ? sampleRowsPerSecond : rowsPerSecond + (sampleRowsPerSecond - rowsPerSecond) * SMOOTHING;
+				size = direction > 0 ? size * STEP : size / STEP;
+			}
+			size = Math.max(minSize, Math.min(upperBound(), size));
+			currentSize = (int) size;
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	
+	/**
+	 * 当前状态
+	 * @return
+	 */
+	public Snapshot snapshot() {
+		lock.lock();
+		try {
+			return new Snapshot(name, currentSize, (long) rowBytes, (long) rowsPerSecond, lastFlushNanos / 1_000_000, flushes);
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	
+	private double upperBound() {
+		if (byteBudget <= 0 || rowBytes <= 0) {
+			return maxSize;
+		}
+		return Math.max(minSize, Math.min(maxSize, byteBudget / rowBytes));
+	}
+	
+	
+	/**
+	 * 状态快照（用于监控指标）
+	 * @param name 名称
+	 * @param size 当前刷盘行数
+	 * @param rowBytes 平均行字节数（估算）
+	 * @param rowsPerSecond 平滑吞吐（行/秒）
+	 * @param lastFlushMillis 最近一次刷盘耗时（毫秒）
+	 * @param flushes 累计刷盘次数
+	 */
+	public record Snapshot(String name, int size, long rowBytes, long rowsPerSecond, long lastFlushMillis, long flushes) {}
+}
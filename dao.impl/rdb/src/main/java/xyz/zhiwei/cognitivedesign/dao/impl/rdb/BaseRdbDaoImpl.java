@@ -1,12 +1,40 @@
 package xyz.zhiwei.cognitivedesign.dao.impl.rdb;
 
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -14,17 +42,27 @@ import org.mybatis.spring.SqlSessionTemplate;
 import org.mybatis.spring.SqlSessionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.CollectionUtils;
 
-import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
 
+import xyz.zhiwei.cognitivedesign.dao.FusibleDao;
+import xyz.zhiwei.cognitivedesign.dao.GroupCommitDao;
+import xyz.zhiwei.cognitivedesign.dao.GroupRollbackException;
+import xyz.zhiwei.cognitivedesign.dao.IdentityDao;
 import xyz.zhiwei.cognitivedesign.dao.TransactionDao;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.ConsistencyContext;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.DeadlineContext;
 import xyz.zhiwei.cognitivedesign.dao.daoimpl.BaseDaoImpl;
 import xyz.zhiwei.cognitivedesign.morphism.Principle;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImagery;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrinciplePage;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.CanonicalForm;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.TotalMode;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
 
 
 
@@ -34,14 +72,37 @@ import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQ
  * @updateBy zhanghaiting
  * @param <P>
  */
-public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoImpl<P> implements TransactionDao<P> {
+public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoImpl<P> implements TransactionDao<P>, FusibleDao<P>, IdentityDao<P>, GroupCommitDao<P> {
 	protected Logger log;
 	
 	
 	private static final int MYBATIS_NO_ROW_COUNT = -2147482646;
-	protected static int BATCH_SIZE = 200; // 批处理批次大小
+	private static final Map<Class<?>, List<Field>> EXAMPLE_FIELD_CACHE = new ConcurrentHashMap<>();
+	// Dao类 -> 可组提交的写入描述及其操作类型（子类自行声明了同名方法的描述不可组提交）
+	private static final Map<Class<?>, Map<String, OperateType>> GROUP_OPERATE_CACHE = new ConcurrentHashMap<>();
+	protected static int BATCH_SIZE = 200; // 批处理批次大小（固定大小，及自适应时的初始大小）
+	private static final int MAX_CACHED_TOTALS = 1024;
+	// 范围扫描：默认每个子范围约多少行（按主键跨度估算），及最多拆分数
+	private static final long ROWS_PER_RANGE_SPLIT = 50_000;
+	private static final int MAX_RANGE_SPLITS = 8;
+	// COUNT、范围扫描与IN列表分块共用的并发线程池（每任务一个虚拟线程）
+	private static final Executor PARALLEL_EXECUTOR = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rdb-parallel-vt-", 0).factory());
+	// 当前查询的投影列（逗号分隔），仅在subCollection/streamSubCollection作用域内有值
+	private static final ThreadLocal<String> PROJECTED_COLUMNS = new ThreadLocal<>();
     
     protected final String mapperNamespace;
+    
+    // 只读副本路由（首次查询时按getReadReplicas构建）
+    private volatile ReplicaRouter replicaRouter;
+    private final Lock routerLock = new ReentrantLock();
+    // 并发子查询的许可（首次并发时按getParallelQueryLimit构建）
+    private volatile Semaphore parallelPermits;
+    private final Lock parallelLock = new ReentrantLock();
+    // 分页总数缓存：(语句, 总数模式, 条件样例) -> 总数；写入代数用于丢弃计数期间发生写入的结果
+    private final Map<List<Object>, CachedTotal> totalCache = new ConcurrentHashMap<>();
+    private final AtomicLong totalGeneration = new AtomicLong();
+    // 自适应批处理大小：语句 -> 调节器
+    private final Map<String, AdaptiveBatchSizer> batchSizers = new ConcurrentHashMap<>();
 
     
     private enum OperateType {
@@ -56,6 +117,9 @@ public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoI
     }
 
 	
+	/*
+	 * SqlSessionFactory需注册StatementSettingsInterceptor，游标抓取行数与截止时间（JDBC查询超时）才会下推到语句
+	 */
 	protected abstract SqlSessionFactory getSqlSessionFactory();
 	protected abstract SqlSessionTemplate getSqlSessionTemplate();
 
@@ -68,6 +132,14 @@ public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoI
 	
 	//==========================================查询===========================================
 
+	/**
+	 * 限定符带投影时，在投影作用域内分发查询
+	 */
+	@Override
+	public List<P> subCollection(PrincipleQualifier<P> qualifier) {
+		return withProjection(columnsOf(qualifier), () -> super.subCollection(qualifier));
+	}
+
 
 	//===================指定查询===================
 
@@ -75,20 +147,42 @@ public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoI
         return Stream.of(pk(qualifier.getSimilar())).toList();
 	}
 	protected P pk(P p) {
-        String statementName = mapperNamespace + "selectByPrimaryKey";
-        return getSqlSessionTemplate().selectOne(statementName, p);
+        Projected projected = project("selectByPrimaryKey", p);
+        return read(template -> template.selectOne(projected.statementName(), projected.param()));
 	}
 
 	
     protected List<P> pkList(PrincipleQualifier<P> qualifier){
     	return pkList(qualifier.getSimilarList());
 	}
+    /**
+     * 主键去重后分块并发查询，结果按入参主键顺序排列；主键数超过临时表阈值且Mapper提供了临时表语句时，改用临时表关联
+     */
     protected List<P> pkList(List<P> similarList){
 		if(null==similarList|| similarList.size()==0){
 			return new ArrayList<>();
 		}
-        String statementName = mapperNamespace + "selectByPrimaryKeyList";
-        return getSqlSessionTemplate().selectList(statementName, similarList);
+		Map<Object, P> keys = new LinkedHashMap<>();
+		similarList.stream().filter(s -> null != s && null != s.getId()).forEach(s -> keys.putIfAbsent(s.getId(), s));
+		List<P> distinct = new ArrayList<>(keys.values());
+		if (distinct.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		List<P> rows = distinct.size() > getTempTableThreshold() && hasTempKeyStatements()
+				? selectByTempKeys(distinct)
+				: selectInChunks("selectByPrimaryKeyList", distinct);
+		
+		Map<Object, P> rowById = new HashMap<>();
+		rows.stream().filter(r -> null != r).forEach(r -> rowById.putIfAbsent(r.getId(), r));
+		List<P> ordered = new ArrayList<>(rowById.size());
+		for (Object id : keys.keySet()) {
+			P row = rowById.get(id);
+			if (null != row) {
+				ordered.add(row);
+			}
+		}
+		return ordered;
 	}
 	//===================条件查询===================
 
@@ -96,8 +190,8 @@ public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoI
         return Stream.of(uk(qualifier.getSimilar())).toList();
 	}
 	protected P uk(P p) {
-        String statementName = mapperNamespace + "selectOneByExample";
-        return getSqlSessionTemplate().selectOne(statementName, p);
+        Projected projected = project("selectOneByExample", p);
+        return read(template -> template.selectOne(projected.statementName(), projected.param()));
 	}
 	
 	
@@ -105,20 +199,135 @@ public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoI
         return fk(qualifier.getSimilar());
     }
     protected List<P> fk(P p) {
-        String statementName = mapperNamespace + "selectByExample";
-        return getSqlSessionTemplate().selectList(statementName, p);
+        Projected projected = project("selectByExample", p);
+        return read(template -> template.selectList(projected.statementName(), projected.param()));
     }
     
    
     protected List<P> fkList(PrincipleQualifier<P> qualifier){
         return fkList(qualifier.getSimilarList());
 	}
+    /**
+     * 条件样例去重后分块并发查询，按块顺序拼接；分块时同一行可能满足不同块的样例，按主键去重
+     */
     protected List<P> fkList(List<P> similarList){
 		if(null==similarList|| similarList.size()==0){
 			return new ArrayList<>();
 		}
-        String statementName = mapperNamespace + "selectByExampleList";
-        return getSqlSessionTemplate().selectList(statementName, similarList);
+		Map<Object, P> examples = new LinkedHashMap<>();
+		similarList.stream().filter(Objects::nonNull).forEach(s -> examples.putIfAbsent(CanonicalForm.of(s), s));
+		List<P> distinct = new ArrayList<>(examples.values());
+		if (distinct.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		List<P> rows = selectInChunks("selectByExampleList", distinct);
+		if (distinct.size() <= getInListChunkSize()) {
+			return rows;
+		}
+		Map<Object, P> rowById = new LinkedHashMap<>();
+		rows.stream().filter(r -> null != r).forEach(r -> rowById.putIfAbsent(r.getId(), r));
+		return new ArrayList<>(rowById.values());
+	}
+	
+	
+	//===================IN列表===================
+
+	/**
+	 * IN列表的分块大小（每块一条语句）
+	 * @return
+	 */
+	protected int getInListChunkSize() {
+		return 1000;
+	}
+	
+	/**
+	 * pkList改用临时表关联的主键数阈值
+	 * 需Mapper提供createTempKeys、insertTempKeys（参数为主键样例列表，多行插入）、selectByTempKeys、dropTempKeys四条语句，否则始终分块
+	 * @return
+	 */
+	protected int getTempTableThreshold() {
+		return 10_000;
+	}
+	
+	/**
+	 * 临时表关联所需的四条语句是否齐全
+	 */
+	private boolean hasTempKeyStatements() {
+		Configuration configuration = getSqlSessionTemplate().getConfiguration();
+		return Stream.of("createTempKeys", "insertTempKeys", "selectByTempKeys", "dropTempKeys")
+				.allMatch(sqlName -> configuration.hasStatement(mapperNamespace + sqlName));
+	}
+	
+	/**
+	 * 分块查询：不超过一块时直接查询；否则各块并发（事务内在当前连接上依次）查询，按块顺序拼接
+	 * 并发数受getParallelQueryLimit约束，许可用尽时其余块在调用线程上查询
+	 * @param sqlName 参数为样例列表的语句
+	 * @param params 已去重
+	 * @return
+	 */
+	private List<P> selectInChunks(String sqlName, List<P> params) {
+		int chunkSize = Math.max(1, getInListChunkSize());
+		if (params.size() <= chunkSize) {
+			Projected projected = project(sqlName, params);
+			return read(template -> template.selectList(projected.statementName(), projected.param()));
+		}
+		// 投影在当前线程解析，各块携带解析后的语句与参数
+		List<Projected> chunks = new ArrayList<>();
+		for (int from = 0; from < params.size(); from += chunkSize) {
+			chunks.add(project(sqlName, params.subList(from, Math.min(params.size(), from + chunkSize))));
+		}
+		
+		List<P> merged = new ArrayList<>();
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			for (Projected chunk : chunks) {
+				merged.addAll(read(template -> template.<P>selectList(chunk.statementName(), chunk.param())));
+			}
+			return merged;
+		}
+		Deadline deadline = DeadlineContext.current();
+		long consistencyToken = ConsistencyContext.current();
+		List<CompletableFuture<List<P>>> parts = new ArrayList<>(chunks.size());
+		for (Projected chunk : chunks) {
+			parts.add(fork(() -> DeadlineContext.callWith(deadline, () -> ConsistencyContext.callWith(consistencyToken,
+					() -> read(template -> template.<P>selectList(chunk.statementName(), chunk.param())))), getScanExecutor()));
+		}
+		for (CompletableFuture<List<P>> part : parts) {
+			merged.addAll(part.join());
+		}
+		log.debug("IN列表[{}]：{}个参数分{}块查询，共{}行", sqlName, params.size(), chunks.size(), merged.size());
+		return merged;
+	}
+	
+	/**
+	 * 临时表关联：在同一连接上建临时表、分块插入主键、关联查询后删除临时表（事务内使用事务连接）
+	 * @param keys 已去重
+	 * @return
+	 */
+	private List<P> selectByTempKeys(List<P> keys) {
+		int chunkSize = Math.max(1, getInListChunkSize());
+		SqlSession sqlSession = SqlSessionUtils.getSqlSession(getSqlSessionFactory(), ExecutorType.SIMPLE, null);
+		try {
+			sqlSession.update(mapperNamespace + "createTempKeys");
+			try {
+				for (int from = 0; from < keys.size(); from += chunkSize) {
+					sqlSession.insert(mapperNamespace + "insertTempKeys", keys.subList(from, Math.min(keys.size(), from + chunkSize)));
+				}
+				Projected projected = project("selectByTempKeys", null);
+				List<P> rows = sqlSession.selectList(projected.statementName(), projected.param());
+				log.debug("IN列表[selectByTempKeys]：{}个主键经临时表查询，共{}行", keys.size(), rows.size());
+				return rows;
+			} finally {
+				// 删除失败不掩盖查询结果或查询异常，临时表随连接释放
+				try {
+					sqlSession.update(mapperNamespace + "dropTempKeys");
+				} catch (RuntimeException e) {
+					log.warn("IN列表[dropTempKeys]：删除临时表失败", e);
+				}
+			}
+		} finally {
+			SqlSessionUtils.closeSqlSession(sqlSession, getSqlSessionFactory());
+		}
 	}
 
     
@@ -126,20 +335,660 @@ public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoI
 		return page(qualifier,"selectByExample");
 	}
 	protected PrinciplePage<P> page(PrincipleQualifier<P> qualifier,String sqlName){
-		return page(qualifier.getSimilar(),qualifier.getPageNum(),qualifier.getPageSize(),sqlName);
+		TotalMode totalMode = null==qualifier.getTotalMode() ? TotalMode.EXACT : qualifier.getTotalMode();
+		return page(qualifier.getSimilar(),qualifier.getPageNum(),qualifier.getPageSize(),sqlName,totalMode);
 	}
 	protected <T> PrinciplePage<P> page(T t,Integer pageNum,Integer pageSize,String sqlName){
-		List<P> listInPage=null;
-		PageHelper.startPage(pageNum, pageSize);
+		return page(t,pageNum,pageSize,sqlName,TotalMode.EXACT);
+	}
+	/**
+	 * 分页查询：需要总数时，总数（可能取自缓存）与本页数据并发查询，耗时取两者较大者
+	 */
+	protected <T> PrinciplePage<P> page(T t,Integer pageNum,Integer pageSize,String sqlName,TotalMode totalMode){
         String statementName = mapperNamespace + sqlName;
-		listInPage=getSqlSessionTemplate().selectList(statementName, t);
-		Long total=0L;
-        if(listInPage instanceof Page){
-            total = ((Page<?>)listInPage).getTotal();
-        } else {
-            total = Long.valueOf(listInPage.size());
-        }
-		return new PrinciplePage<P>(listInPage,total);
+		CompletableFuture<Long> totalFuture = TotalMode.NONE==totalMode
+				? CompletableFuture.completedFuture(null)
+				: totalAsync(t, statementName, totalMode);
+		Projected projected = project(sqlName, t);
+		List<P> listInPage=read(template -> {
+			PageHelper.startPage(pageNum, pageSize, false);
+			return template.selectList(projected.statementName(), projected.param());
+		});
+		return new PrinciplePage<P>(listInPage,totalFuture.join());
+	}
+	
+	
+	/**
+	 * 键集分页：WHERE 键 > 上一页最后一行的键 ORDER BY 键 LIMIT 页大小，深页与首页同样快
+	 * Mapper需提供selectByExampleSeek，参数为Map：example（条件样例）、after（上一页最后一行，首页为null）、limit（行数），如
+	 * <pre>
+	 * where ...条件... &lt;if test="after != null"&gt;and id &gt; #{after.id}&lt;/if&gt; order by id limit #{limit}
+	 * </pre>
+	 * 只有totalMode为EXACT/APPROXIMATE时才统计总数（以selectByExample计数，与本页数据并发）
+	 */
+	protected PrinciplePage<P> seek(PrincipleQualifier<P> qualifier){
+		return seek(qualifier,"selectByExampleSeek","selectByExample");
+	}
+	protected PrinciplePage<P> seek(PrincipleQualifier<P> qualifier,String sqlName,String countSqlName){
+		int pageSize = qualifier.getPageSize() > 0 ? qualifier.getPageSize() : 10;
+		Map<String, Object> param = new HashMap<>();
+		param.put("example", qualifier.getSimilar());
+		param.put("after", qualifier.getRangeStart());
+		// 多取一行以判断是否还有下一页
+		param.put("limit", pageSize + 1);
+		CompletableFuture<Long> totalFuture = null==qualifier.getTotalMode() || TotalMode.NONE==qualifier.getTotalMode()
+				? CompletableFuture.completedFuture(null)
+				: totalAsync(qualifier.getSimilar(), mapperNamespace + countSqlName, qualifier.getTotalMode());
+		Projected projected = project(sqlName, param);
+		List<P> rows = read(template -> template.selectList(projected.statementName(), projected.param()));
+		
+		boolean hasNext = rows.size() > pageSize;
+		List<P> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+		PrinciplePage<P> page = new PrinciplePage<P>(pageRows, totalFuture.join());
+		page.setNextRangeStart(hasNext ? pageRows.get(pageSize - 1) : null);
+		return page;
+	}
+	
+	
+	
+	//===================范围扫描===================
+
+	/**
+	 * 范围扫描：主键在[rangeStart.id, rangeEnd.id)内且满足条件样例的行，按主键升序
+	 * 两端主键都已知且跨度足够大时，按主键等分为若干子范围，各以游标并发读取后按范围顺序拼接（即主键顺序），
+	 * 并发数受getParallelQueryLimit约束，许可用尽时其余子范围在调用线程上读取；
+	 * 事务内在当前连接上一次读取。
+	 * Mapper需提供selectByRange，参数为Map：example（条件样例）、start、end（主键，可为null表示不限），如
+	 * <pre>
+	 * where ...条件... &lt;if test="start != null"&gt;and id &gt;= #{start}&lt;/if&gt; &lt;if test="end != null"&gt;and id &lt; #{end}&lt;/if&gt; order by id
+	 * </pre>
+	 */
+	protected List<P> range(PrincipleQualifier<P> qualifier){
+		return range(qualifier,"selectByRange");
+	}
+	protected List<P> range(PrincipleQualifier<P> qualifier,String sqlName){
+		P similar = qualifier.getSimilar();
+		List<Long[]> splits = rangeSplits(qualifier);
+		if (splits.size() <= 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+			Projected projected = project(sqlName, rangeParam(similar, idOf(qualifier.getRangeStart()), idOf(qualifier.getRangeEnd())));
+			return read(template -> template.selectList(projected.statementName(), projected.param()));
+		}
+		
+		Deadline deadline = DeadlineContext.current();
+		long consistencyToken = ConsistencyContext.current();
+		String columns = PROJECTED_COLUMNS.get();
+		List<CompletableFuture<List<P>>> parts = new ArrayList<>(splits.size());
+		for (Long[] split : splits) {
+			Map<String, Object> param = rangeParam(similar, split[0], split[1]);
+			parts.add(fork(() -> DeadlineContext.callWith(deadline, () -> ConsistencyContext.callWith(consistencyToken,
+					() -> withProjection(columns, () -> {
+				try (Stream<P> rows = cursor(sqlName, param)) {
+					return rows.toList();
+				}
+			}))), getScanExecutor()));
+		}
+		List<P> merged = new ArrayList<>();
+		for (CompletableFuture<List<P>> part : parts) {
+			merged.addAll(part.join());
+		}
+		log.debug("范围扫描[{}]：{}个子范围，共{}行", sqlName, splits.size(), merged.size());
+		return merged;
+	}
+	
+	/**
+	 * 范围扫描的拆分数
+	 * 默认按主键跨度估算行数（假定主键大致连续），每约ROWS_PER_RANGE_SPLIT行一个子范围，最多MAX_RANGE_SPLITS个
+	 * @param estimatedRows 估算行数
+	 * @return
+	 */
+	protected int getRangeSplitCount(long estimatedRows) {
+		return (int) Math.min(MAX_RANGE_SPLITS, Math.max(1, estimatedRows / ROWS_PER_RANGE_SPLIT));
+	}
+	
+	/**
+	 * 执行范围扫描子范围、IN列表分块的线程池（并发数受getParallelQueryLimit约束）
+	 * @return
+	 */
+	protected Executor getScanExecutor() {
+		return PARALLEL_EXECUTOR;
+	}
+	
+	/**
+	 * 按主键等分[start, end)
+	 * @return 子范围[start, end)列表；两端不全时为整个范围
+	 */
+	private List<Long[]> rangeSplits(PrincipleQualifier<P> qualifier) {
+		Long start = idOf(qualifier.getRangeStart());
+		Long end = idOf(qualifier.getRangeEnd());
+		List<Long[]> splits = new ArrayList<>();
+		if (null == start || null == end || end <= start) {
+			splits.add(new Long[] {start, end});
+			return splits;
+		}
+		long span = end - start;
+		int count = (int) Math.max(1, Math.min(getRangeSplitCount(span), span));
+		long step = (span + count - 1) / count;
+		for (long from = start; from < end; from += step) {
+			splits.add(new Long[] {from, Math.min(end, from + step)});
+		}
+		return splits;
+	}
+	
+	private static Map<String, Object> rangeParam(Object example, Long start, Long end) {
+		Map<String, Object> param = new HashMap<>();
+		param.put("example", example);
+		param.put("start", start);
+		param.put("end", end);
+		return param;
+	}
+	
+	private Long idOf(P p) {
+		return null == p ? null : p.getId();
+	}
+	
+	
+	
+	//===================并发子查询===================
+
+	/**
+	 * 本Dao同时在途的并发子查询（COUNT、范围扫描子范围、IN列表分块）上限
+	 * 每个子查询各占一个连接且不经读泳道的隔舱，应按连接池大小设置（不超过连接池大小减去读泳道对本Dao的并发上限）；
+	 * 许可用尽时子查询在调用线程上执行，不再额外占用连接
+	 * @return 小于等于0时不并发
+	 */
+	protected int getParallelQueryLimit() {
+		return 4;
+	}
+	
+	/**
+	 * 取得许可时在线程池上执行子查询，否则在调用线程上执行
+	 * 两种情况下异常均经返回的Future传出
+	 */
+	private <R> CompletableFuture<R> fork(Supplier<R> query, Executor executor) {
+		Semaphore permits = parallelPermits();
+		if (!permits.tryAcquire()) {
+			try {
+				return CompletableFuture.completedFuture(query.get());
+			} catch (RuntimeException e) {
+				return CompletableFuture.failedFuture(e);
+			}
+		}
+		try {
+			return CompletableFuture.supplyAsync(() -> {
+				try {
+					return query.get();
+				} finally {
+					permits.release();
+				}
+			}, executor);
+		} catch (RuntimeException e) {
+			// 线程池拒绝执行
+			permits.release();
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+	
+	private Semaphore parallelPermits() {
+		Semaphore permits = parallelPermits;
+		if (null == permits) {
+			parallelLock.lock();
+			try {
+				permits = parallelPermits;
+				if (null == permits) {
+					permits = new Semaphore(Math.max(0, getParallelQueryLimit()));
+					parallelPermits = permits;
+				}
+			} finally {
+				parallelLock.unlock();
+			}
+		}
+		return permits;
+	}
+	
+	
+	
+	//===================分页总数===================
+
+	/**
+	 * 总数的缓存时长（毫秒），按(语句, 条件样例)缓存，本类写入（事务组在提交）后失效；小于等于0时不缓存
+	 * 绕过本Dao的写入不会使缓存失效，总数最多滞后此时长
+	 * @return
+	 */
+	protected long getTotalCacheTtlMillis() {
+		return 1000;
+	}
+	
+	/**
+	 * 执行COUNT查询的线程池（与本页数据查询并发，各用一个连接；并发数受getParallelQueryLimit约束）
+	 * @return
+	 */
+	protected Executor getCountExecutor() {
+		return PARALLEL_EXECUTOR;
+	}
+	
+	/**
+	 * 近似总数，如取自表统计信息
+	 * 默认执行Mapper中的approximateCount语句（参数为条件样例），如
+	 * select TABLE_ROWS from information_schema.TABLES where TABLE_SCHEMA = database() and TABLE_NAME = 'xxx'
+	 * @param example
+	 * @return 未提供该语句时返回null（退化为精确总数）
+	 */
+	protected Long approximateTotal(Object example) {
+        String statementName = mapperNamespace + "approximateCount";
+		if (!getSqlSessionTemplate().getConfiguration().hasStatement(statementName)) {
+			return null;
+		}
+		return read(template -> template.<Long>selectOne(statementName, example));
+	}
+	
+	/**
+	 * 总数：缓存命中时直接给出（调用方携带一致性令牌时不取缓存）；事务内在当前连接上依次查询（另一连接看不到未提交的写入）；
+	 * 否则在计数线程池上并发查询（并发许可用尽时在调用线程上查询）
+	 */
+	private CompletableFuture<Long> totalAsync(Object example, String statementName, TotalMode totalMode) {
+		List<Object> key = Arrays.asList(statementName, totalMode, CanonicalForm.of(example));
+		long consistencyToken = ConsistencyContext.current();
+		CachedTotal cached = consistencyToken > 0 ? null : totalCache.get(key);
+		if (null != cached && System.nanoTime() - cached.expiresAtNanos() < 0) {
+			return CompletableFuture.completedFuture(cached.total());
+		}
+		long stamp = totalGeneration.get();
+		Supplier<Long> counter = () -> {
+			Long total = TotalMode.APPROXIMATE == totalMode ? approximateTotal(example) : null;
+			if (null == total) {
+				total = read(template -> PageHelper.count(() -> template.selectList(statementName, example)));
+			}
+			cacheTotal(key, total, stamp);
+			return total;
+		};
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return CompletableFuture.completedFuture(counter.get());
+		}
+		Deadline deadline = DeadlineContext.current();
+		return fork(() -> DeadlineContext.callWith(deadline, () -> ConsistencyContext.callWith(consistencyToken, counter)), getCountExecutor());
+	}
+	
+	private void cacheTotal(List<Object> key, Long total, long stamp) {
+		long ttlMillis = getTotalCacheTtlMillis();
+		if (ttlMillis <= 0 || null == total) {
+			return;
+		}
+		if (totalCache.size() >= MAX_CACHED_TOTALS) {
+			totalCache.clear();
+		}
+		totalCache.put(key, new CachedTotal(total, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+		// 计数期间发生了写入：丢弃可能过时的总数
+		if (stamp != totalGeneration.get()) {
+			totalCache.remove(key);
+		}
+	}
+	
+	/**
+	 * 缓存的总数
+	 */
+	private record CachedTotal(Long total, long expiresAtNanos) {}
+	
+	
+	
+	//===================流式查询===================
+
+	/**
+	 * 游标每次抓取的行数（需注册StatementSettingsInterceptor）
+	 * MySQL驱动需返回Integer.MIN_VALUE或在连接串开启useCursorFetch，才会真正逐批读取
+	 * @return
+	 */
+	protected int getStreamFetchSize() {
+		return 1000;
+	}
+	
+	/**
+	 * fk/fkList/range以游标流式读取（range流式时不拆分，单个游标按主键顺序读取），其余查询由列表结果适配
+	 */
+	@Override
+	public Stream<P> streamSubCollection(PrincipleQualifier<P> qualifier) {
+		// 游标在作用域内打开，投影随语句确定
+		return withProjection(columnsOf(qualifier), () -> streamInScope(qualifier));
+	}
+	
+	private Stream<P> streamInScope(PrincipleQualifier<P> qualifier) {
+		if (null != qualifier && "fk".equals(qualifier.getDescribe())) {
+			return cursor("selectByExample", qualifier.getSimilar());
+		}
+		if (null != qualifier && "fkList".equals(qualifier.getDescribe())) {
+			List<P> similarList = qualifier.getSimilarList();
+			if (null == similarList || similarList.size() == 0) {
+				return Stream.empty();
+			}
+			return cursor("selectByExampleList", similarList);
+		}
+		if (null != qualifier && "range".equals(qualifier.getDescribe())) {
+			return cursor("selectByRange", rangeParam(qualifier.getSimilar(), idOf(qualifier.getRangeStart()), idOf(qualifier.getRangeEnd())));
+		}
+		List<P> list = subCollection(qualifier);
+		return null == list ? Stream.empty() : list.stream();
+	}
+	
+	/**
+	 * 游标查询：在独立的SqlSession上打开游标（可路由时在只读副本上），流关闭时关闭游标与会话
+	 * @param sqlName
+	 * @param param
+	 * @return
+	 */
+	protected Stream<P> cursor(String sqlName, Object param) {
+        Projected projected = project(sqlName, param);
+        ReadReplica replica = routeToReplica() ? replicaRouter().acquire() : null;
+        SqlSessionFactory sqlSessionFactory = null == replica ? getSqlSessionFactory() : replica.getSqlSessionTemplate().getSqlSessionFactory();
+		SqlSession sqlSession = null;
+		try {
+			sqlSession = sqlSessionFactory.openSession();
+			SqlSession session = sqlSession;
+			Cursor<P> cursor = StatementSettingsInterceptor.withFetchSize(getStreamFetchSize(),
+					() -> session.<P>selectCursor(projected.statementName(), projected.param()));
+			return StreamSupport.stream(cursor.spliterator(), false)
+					.onClose(() -> closeCursor(cursor, session, replica, sqlName));
+		} catch (RuntimeException e) {
+			if (null != sqlSession) {
+				sqlSession.close();
+			}
+			replicaRouter().release(replica);
+			throw e;
+		}
+	}
+	
+	private void closeCursor(Cursor<P> cursor, SqlSession sqlSession, ReadReplica replica, String sqlName) {
+		try {
+			cursor.close();
+		} catch (IOException e) {
+			log.error("游标查询[{}]：关闭游标失败", sqlName, e);
+		} finally {
+			sqlSession.close();
+			replicaRouter().release(replica);
+		}
+	}
+	
+	
+	
+	//===================列投影===================
+
+	/**
+	 * 投影字段名对应的列名，默认驼峰转下划线
+	 * @param fieldName 本原类的字段名
+	 * @return
+	 */
+	protected String columnOf(String fieldName) {
+		return fieldName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+	}
+	
+	/**
+	 * 投影列：只接受本原类的字段（列名以${}拼入SQL，不可直接使用外部输入），主键总会带上
+	 * @return 无投影时为null
+	 */
+	private String columnsOf(PrincipleQualifier<P> qualifier) {
+		if (null == qualifier || null == qualifier.getProjection() || qualifier.getProjection().isEmpty()) {
+			return null;
+		}
+		Set<String> fieldNames = new HashSet<>();
+		EXAMPLE_FIELD_CACHE.computeIfAbsent(qualifier.getPrincipleClazz(), BaseRdbDaoImpl::exampleFieldsOf)
+				.forEach(field -> fieldNames.add(field.getName()));
+		List<String> columns = new ArrayList<>();
+		columns.add(columnOf("id"));
+		for (String fieldName : new TreeSet<>(qualifier.getProjection())) {
+			if ("id".equals(fieldName)) {
+				continue;
+			}
+			if (!fieldNames.contains(fieldName)) {
+				log.warn("投影字段[{}]不是{}的字段，已忽略", fieldName, qualifier.getPrincipleClazz().getName());
+				continue;
+			}
+			columns.add(columnOf(fieldName));
+		}
+		return String.join(", ", columns);
+	}
+	
+	private static <T> T withProjection(String columns, Supplier<T> action) {
+		String previous = PROJECTED_COLUMNS.get();
+		if (null == columns) {
+			PROJECTED_COLUMNS.remove();
+		} else {
+			PROJECTED_COLUMNS.set(columns);
+		}
+		try {
+			return action.get();
+		} finally {
+			if (null == previous) {
+				PROJECTED_COLUMNS.remove();
+			} else {
+				PROJECTED_COLUMNS.set(previous);
+			}
+		}
+	}
+	
+	/**
+	 * 解析实际执行的语句：当前有投影且Mapper提供了&lt;sqlName&gt;Projected语句时改用该语句，否则按原语句查询全部列
+	 * 投影语句的参数为Map：原参数为Map时在其副本上追加；为列表时放在list下；否则放在example下。
+	 * 投影列（已校验、逗号分隔）放在_columns下，如
+	 * <pre>
+	 * &lt;select id="selectByExampleProjected"&gt;select ${_columns} from xxx where ...#{example.xxx}...&lt;/select&gt;
+	 * </pre>
+	 * COUNT不受投影影响
+	 */
+	@SuppressWarnings("unchecked")
+	private Projected project(String sqlName, Object param) {
+        String statementName = mapperNamespace + sqlName;
+		String columns = PROJECTED_COLUMNS.get();
+		if (null == columns || !getSqlSessionTemplate().getConfiguration().hasStatement(statementName + "Projected")) {
+			return new Projected(statementName, param);
+		}
+		Map<String, Object> projectedParam = new HashMap<>();
+		if (param instanceof Map<?, ?> map) {
+			projectedParam.putAll((Map<String, Object>) map);
+		} else if (param instanceof List<?> list) {
+			projectedParam.put("list", list);
+		} else {
+			projectedParam.put("example", param);
+		}
+		projectedParam.put("_columns", columns);
+		return new Projected(statementName + "Projected", projectedParam);
+	}
+	
+	/**
+	 * 实际执行的语句与参数
+	 */
+	private record Projected(String statementName, Object param) {}
+	
+	
+	
+	//===================读写分离===================
+
+	/**
+	 * 只读副本（各自的SqlSessionTemplate指向只读DataSource）
+	 * 为空时全部查询走主库
+	 * @return
+	 */
+	protected List<ReadReplica> getReadReplicas() {
+		return List.of();
+	}
+	
+	/**
+	 * 可参与路由的最大复制延迟（毫秒）
+	 * @return
+	 */
+	protected long getMaxReplicaLagMillis() {
+		return 1000;
+	}
+	
+	/**
+	 * 调用方写入后，其查询固定走主库的时长（毫秒），保证读到自己的写入
+	 * 以调用方的一致性令牌（ConsistencyContext，写入完成的时刻）起算，不影响其它调用方；
+	 * 应不小于可参与路由的最大复制延迟加一次延迟探测间隔
+	 * @return
+	 */
+	protected long getPrimaryPinMillis() {
+		return 3000;
+	}
+	
+	/**
+	 * 执行查询：事务内、调用方写后固定期内或无可用副本时走主库，否则走在途查询最少的副本；副本查询失败时改走主库
+	 * @param <T>
+	 * @param query
+	 * @return
+	 */
+	protected <T> T read(Function<SqlSessionTemplate, T> query) {
+		ReadReplica replica = routeToReplica() ? replicaRouter().acquire() : null;
+		if (null == replica) {
+			return query.apply(getSqlSessionTemplate());
+		}
+		try {
+			return query.apply(replica.getSqlSessionTemplate());
+		} catch (RuntimeException e) {
+			log.warn("只读副本[{}]查询失败，改走主库", replica.getName(), e);
+			return query.apply(getSqlSessionTemplate());
+		} finally {
+			replicaRouter().release(replica);
+		}
+	}
+	
+	private boolean routeToReplica() {
+		return !TransactionSynchronizationManager.isActualTransactionActive()
+				&& !isPrimaryPinned(ConsistencyContext.current())
+				&& !replicaRouter().isEmpty();
+	}
+	
+	/**
+	 * @param consistencyToken 调用方的一致性令牌，0表示无
+	 */
+	private boolean isPrimaryPinned(long consistencyToken) {
+		return consistencyToken > 0 && System.currentTimeMillis() - consistencyToken < getPrimaryPinMillis();
+	}
+	
+	private ReplicaRouter replicaRouter() {
+		ReplicaRouter router = replicaRouter;
+		if (null == router) {
+			routerLock.lock();
+			try {
+				router = replicaRouter;
+				if (null == router) {
+					router = new ReplicaRouter(getReadReplicas(), getMaxReplicaLagMillis());
+					replicaRouter = router;
+				}
+			} finally {
+				routerLock.unlock();
+			}
+		}
+		return router;
+	}
+	
+	/**
+	 * 写入后：使总数缓存失效（读到自己的写入由调用方的一致性令牌保证）
+	 * 事务内的写入在全局事务提交后才生效（回调随业务回调汇入主线程），否则立即生效
+	 */
+	private void afterWrite(boolean isInTransactional) {
+		if (isInTransactional && TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					afterWrite(false);
+				}
+			});
+			return;
+		}
+		totalGeneration.incrementAndGet();
+		totalCache.clear();
+	}
+	
+	
+	
+	//===================主键查询===================
+
+	/**
+	 * pk、pkList只按主键匹配，可由实体缓存服务（Dao实现CustomEntityCache时启用）
+	 * 子类改写了pk/pkList语义时，应覆写本方法返回false
+	 */
+	@Override
+	public boolean isIdLookup(String describe) {
+		return "pk".equals(describe) || "pkList".equals(describe);
+	}
+
+	@Override
+	public List<P> listByIds(List<P> similarList) {
+		return pkList(similarList);
+	}
+	
+	
+	//===================合并查询===================
+
+	/**
+	 * 同批次的多个pk合并为pkList，多个fk合并为fkList（仅在Dao实现CustomReadFusion并开启对应描述时调用）
+	 * 合并所需的selectByPrimaryKeyList/selectByExampleList语句缺失时直接抛出异常，不静默退化为空结果
+	 * 子类改写了pk/fk语义时，应覆写本方法返回null以关闭合并
+	 */
+	@Override
+	public String fusedDescribe(String describe) {
+		if ("pk".equals(describe)) {
+			requireStatement("selectByPrimaryKeyList", describe);
+			return "pkList";
+		}
+		if ("fk".equals(describe)) {
+			requireStatement("selectByExampleList", describe);
+			return "fkList";
+		}
+		return null;
+	}
+	
+	private void requireStatement(String sqlName, String describe) {
+		if (!getSqlSessionTemplate().getConfiguration().hasStatement(mapperNamespace + sqlName)) {
+			throw new IllegalStateException("[" + describe + "]开启了查询合并，但Mapper缺少语句：" + mapperNamespace + sqlName);
+		}
+	}
+
+	@Override
+	public List<P> splitFused(PrincipleQualifier<P> qualifier, List<P> fusedRows) {
+		P similar = qualifier.getSimilar();
+		if ("pk".equals(qualifier.getDescribe())) {
+			// 与pk单查一致：未查到时为[null]
+			P row = fusedRows.stream()
+					.filter(r -> null != r && Objects.equals(r.getId(), similar.getId()))
+					.findFirst().orElse(null);
+			return Stream.of(row).toList();
+		}
+		return fusedRows.stream().filter(r -> null != r && matchesExample(similar, r)).toList();
+	}
+	
+	/**
+	 * 行是否满足条件样例：样例中的非空字段与行中对应字段逐一相等（与selectByExample的等值条件一致）
+	 * Mapper中的条件不是等值匹配时（如like、范围），子类应覆写本方法
+	 * @param example
+	 * @param row
+	 * @return
+	 */
+	protected boolean matchesExample(P example, P row) {
+		List<Field> fields = EXAMPLE_FIELD_CACHE.computeIfAbsent(example.getClass(), BaseRdbDaoImpl::exampleFieldsOf);
+		try {
+			for (Field field : fields) {
+				Object expected = field.get(example);
+				if (null != expected && !expected.equals(field.get(row))) {
+					return false;
+				}
+			}
+			return true;
+		} catch (IllegalAccessException | IllegalArgumentException e) {
+			throw new IllegalStateException("条件样例匹配失败：" + example.getClass().getName(), e);
+		}
+	}
+	
+	private static List<Field> exampleFieldsOf(Class<?> clazz) {
+		List<Field> fields = new ArrayList<>();
+		for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+					continue;
+				}
+				field.setAccessible(true);
+				fields.add(field);
+			}
+		}
+		return fields;
 	}
 	
 	
@@ -206,8 +1055,215 @@ public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoI
 
 
 
+	//==========================================批处理大小===========================================
+
+	/**
+	 * 固定的批处理刷盘行数；小于等于0时按语句自适应调节（初始为BATCH_SIZE）
+	 * @return
+	 */
+	protected int getFixedBatchSize() {
+		return 0;
+	}
+	
+	/**
+	 * 自适应时单次刷盘的耗时上限（毫秒），超过时收缩刷盘行数
+	 * @return
+	 */
+	protected long getBatchLatencyCeilingMillis() {
+		return 200;
+	}
+	
+	/**
+	 * 自适应时单次刷盘的字节预算（按estimateRowBytes估算，应小于数据库的单包上限）；小于等于0时不限
+	 * @return
+	 */
+	protected long getBatchByteBudget() {
+		return 4 * 1024 * 1024;
+	}
+	
+	/**
+	 * 各语句当前的批处理大小（用于监控指标）；固定大小时为空
+	 * @return
+	 */
+	public Map<String, AdaptiveBatchSizer.Snapshot> getBatchSizes() {
+		Map<String, AdaptiveBatchSizer.Snapshot> snapshots = new LinkedHashMap<>();
+		batchSizers.forEach((sqlName, sizer) -> snapshots.put(sqlName, sizer.snapshot()));
+		return snapshots;
+	}
+	
+	/**
+	 * @return 固定大小时为null
+	 */
+	private AdaptiveBatchSizer batchSizerOf(String sqlName) {
+		if (getFixedBatchSize() > 0) {
+			return null;
+		}
+		return batchSizers.computeIfAbsent(sqlName, k -> new AdaptiveBatchSizer(mapperNamespace + k, BATCH_SIZE,
+				AdaptiveBatchSizer.DEFAULT_MIN_SIZE, AdaptiveBatchSizer.DEFAULT_MAX_SIZE, getBatchLatencyCeilingMillis(), getBatchByteBudget()));
+	}
+	
+	
+	
+	//==========================================多行语句改写===========================================
+
+	/**
+	 * 是否将该语句的批量操作改写为多行语句，默认不改写
+	 * 开启时Mapper须提供&lt;sqlName&gt;List语句（参数为本原列表），insertBatch/updateBatch/deleteBatch改写为按预算切块的多行语句，如
+	 * <pre>
+	 * insertList：insert into xxx (...) values &lt;foreach collection="list" item="r" separator=","&gt;(#{r.xxx}, ...)&lt;/foreach&gt;
+	 * deleteByPrimaryKeyList：delete from xxx where id in &lt;foreach collection="list" item="r" open="(" separator="," close=")"&gt;#{r.id}&lt;/foreach&gt;
+	 * updateByPrimaryKeyList：update xxx set col = case id &lt;foreach ...&gt;when #{r.id} then #{r.col}&lt;/foreach&gt; end, ... where id in (...)
+	 * </pre>
+	 * 更新也可写为insert ... on duplicate key update（此时影响行数按MySQL规则，可能无法逐行对应）
+	 * 组提交不改写（需逐条的影响行数），仍按批处理执行
+	 * @param sqlName
+	 * @return
+	 */
+	protected boolean isRewriteEnabled(String sqlName) {
+		return false;
+	}
+	
+	/**
+	 * 多行语句的字节预算（按estimateRowBytes估算，应小于数据库的单包上限，如MySQL的max_allowed_packet）；小于等于0时不改写
+	 * @return
+	 */
+	protected long getRewriteByteBudget() {
+		return 1024 * 1024;
+	}
+	
+	/**
+	 * 估算一行在多行语句中占用的字节数，默认按各字段值字符串的UTF-8编码长度加少量分隔开销
+	 * @param row
+	 * @return
+	 */
+	protected long estimateRowBytes(P row) {
+		List<Field> fields = EXAMPLE_FIELD_CACHE.computeIfAbsent(row.getClass(), BaseRdbDaoImpl::exampleFieldsOf);
+		long bytes = 2;
+		try {
+			for (Field field : fields) {
+				Object value = field.get(row);
+				bytes += 4 + (null == value ? 4 : String.valueOf(value).getBytes(StandardCharsets.UTF_8).length);
+			}
+		} catch (IllegalAccessException | IllegalArgumentException e) {
+			throw new IllegalStateException("估算行字节数失败：" + row.getClass().getName(), e);
+		}
+		return bytes;
+	}
+	
+	/**
+	 * 更新行的列集合：只有列集合相同的连续行才改写到同一条多行更新中
+	 * 默认所有行相同（按主键整行更新）；子类使用只更新非空字段的语句时，应覆写为行的非空字段集合
+	 * @param row
+	 * @return
+	 */
+	protected Object updateColumnsOf(P row) {
+		return null;
+	}
+	
+	/**
+	 * 开启改写时缺少多行语句视为配置错误
+	 */
+	private boolean isRewritable(String sqlName) {
+		if (!isRewriteEnabled(sqlName) || getRewriteByteBudget() <= 0) {
+			return false;
+		}
+		if (!getSqlSessionTemplate().getConfiguration().hasStatement(mapperNamespace + sqlName + "List")) {
+			throw new IllegalStateException("已开启多行语句改写，但Mapper缺少语句：" + mapperNamespace + sqlName + "List");
+		}
+		return true;
+	}
+	
+	
+	
+	//==========================================组提交===========================================
+
+	/**
+	 * add、update、delete可组提交（Dao实现CustomWriteBatching时启用）
+	 * 子类自行声明了同名方法（改写了其语义）时，该描述不可组提交
+	 */
+	@Override
+	public boolean isGroupCommittable(String describe) {
+		return null != groupOperateOf(describe);
+	}
+	
+	/**
+	 * 各块的行按块顺序拼接为一次批处理（不改写为多行语句）、一次提交，按行的影响行数加总回各块
+	 * 驱动未逐行返回影响行数时，真实总行数按块顺序分摊（每块不超过自己的行数），不凭空记数
+	 */
+	@Override
+	public List<Long> saveGroup(List<PrincipleImagery<P>> imageries) {
+		String describe = imageries.get(0).getDescribe();
+		List<P> rows = new ArrayList<>();
+		imageries.forEach(imagery -> imagery.stream().filter(Objects::nonNull).forEach(rows::add));
+		
+		List<Long> rowCounts = new ArrayList<>(rows.size());
+		OperateType operateType = groupOperateOf(describe);
+		String sqlName = switch (operateType) {
+			case INSERT -> "insert";
+			case UPDATE -> "updateByPrimaryKey";
+			case DELETE -> "deleteByPrimaryKey";
+		};
+		long remaining = batchExecute(rows, sqlName, operateType, rowCounts);
+		boolean perRow = rowCounts.size() == rows.size();
+		if (!perRow) {
+			log.warn("组提交[{}]：驱动返回{}个影响行数，与{}行不对应，按块顺序分摊真实总行数{}", describe, rowCounts.size(), rows.size(), remaining);
+		}
+		
+		List<Long> counts = new ArrayList<>(imageries.size());
+		int from = 0;
+		for (PrincipleImagery<P> imagery : imageries) {
+			int size = (int) imagery.stream().filter(Objects::nonNull).count();
+			if (perRow) {
+				counts.add(rowCounts.subList(from, from + size).stream().mapToLong(Long::longValue).sum());
+			} else {
+				long share = Math.min(size, remaining);
+				counts.add(share);
+				remaining -= share;
+			}
+			from += size;
+		}
+		return counts;
+	}
+	
+	
+	
+	/**
+	 * @return 不可组提交时为null
+	 */
+	private OperateType groupOperateOf(String describe) {
+		return GROUP_OPERATE_CACHE.computeIfAbsent(getClass(), BaseRdbDaoImpl::groupOperatesOf).get(describe);
+	}
+	
+	private static Map<String, OperateType> groupOperatesOf(Class<?> clazz) {
+		Map<String, OperateType> operates = new HashMap<>(Map.of("add", OperateType.INSERT, "update", OperateType.UPDATE, "delete", OperateType.DELETE));
+		for (Class<?> c = clazz; c != null && c != BaseRdbDaoImpl.class; c = c.getSuperclass()) {
+			for (Method method : c.getDeclaredMethods()) {
+				if (!method.isBridge() && method.getParameterCount() == 1) {
+					operates.remove(method.getName());
+				}
+			}
+		}
+		return operates;
+	}
+	
+	
+	
 	//==========================================更新类方法 私有===========================================
 
+    /**
+     * 按操作类型执行的批量操作，逐行影响行数依次追加到rowCounts
+     */
+    private Long batchExecute(List<P> list, String sqlName, OperateType operateType, List<Long> rowCounts) {
+        return batchExecute(list, sqlName, operateType,
+        		(sqlSession, statementName) -> model -> switch (operateType) {
+        			case INSERT -> sqlSession.insert(statementName, model);
+        			case UPDATE -> sqlSession.update(statementName, model);
+        			case DELETE -> sqlSession.delete(statementName, model);
+        		},
+        		rowCounts);
+    }
+    
+
     
     /**
      * 通用批量执行方法（核心：原生SqlSession+适配上层事务+精准统计真实影响数）
@@ -223,6 +1279,20 @@ public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoI
             String sqlName,
             OperateType operateType,
             BiFunction<SqlSession, String, Function<P, Integer>> operateFunc) {
+        return batchExecute(list, sqlName, operateType, operateFunc, null);
+    }
+    
+    /**
+     * @param rowCounts 不为空时，依次追加每条参数的真实影响行数；此时为组提交：
+     * 非事务中在连接上关闭自动提交，整组（可能分多次刷盘）在一个本地事务中提交，失败时回滚，
+     * 回滚成功时抛出GroupRollbackException，调用方方可逐块重试
+     */
+    private Long batchExecute(
+            List<P> list,
+            String sqlName,
+            OperateType operateType,
+            BiFunction<SqlSession, String, Function<P, Integer>> operateFunc,
+            List<Long> rowCounts) {
         long realOperateCount = 0L;
 
         // 空列表直接返回0
@@ -238,6 +1308,10 @@ public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoI
         //Transaction currentTransaction = null;
         Boolean isInTransactional = false;
         SqlSession sqlSession = null;
+        // 组提交的本地事务连接及其原自动提交状态
+        Connection groupConnection = null;
+        boolean groupAutoCommit = true;
+        boolean committing = false;
         
 
         
@@ -255,40 +1329,75 @@ public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoI
 		        ExecutorType.BATCH,
 		        null
 		    );
+		    if (null != rowCounts && !isInTransactional) {
+		    	groupConnection = sqlSession.getConnection();
+		    	groupAutoCommit = groupConnection.getAutoCommit();
+		    	groupConnection.setAutoCommit(false);
+		    }
 
-            // 循环执行批处理
-            for (int i = 0; i < list.size(); i++) {
-                P model = list.get(i);
-                if(null==model) {
-                	continue;
-                }
-                // 执行批处理SQL（加入队列，不立即执行）
-                Function<P, Integer> sqlTempFunc = operateFunc.apply(sqlSession, statementName);
-                sqlTempFunc.apply(model);
-
-                // 分批次刷盘（每BATCH_SIZE条执行一次，获取真实行数）
-                if ((i + 1) % BATCH_SIZE == 0) {
-                    realOperateCount += flushAndCount(sqlSession, operateType, sqlName, i + 1);
-                }
+            if (null == rowCounts && isRewritable(sqlName)) {
+            	// 改写为多行语句
+            	realOperateCount = executeRewritten(sqlSession, list, sqlName, operateType);
+            } else {
+	            AdaptiveBatchSizer sizer = batchSizerOf(sqlName);
+	            long byteBudget = null == sizer ? 0L : getBatchByteBudget();
+	            int batchSize = null == sizer ? getFixedBatchSize() : sizer.size();
+	            int pendingRows = 0;
+	            long pendingBytes = 0L;
+	            // 循环执行批处理
+	            for (int i = 0; i < list.size(); i++) {
+	                P model = list.get(i);
+	                if(null==model) {
+	                	continue;
+	                }
+	                // 执行批处理SQL（加入队列，不立即执行）
+	                Function<P, Integer> sqlTempFunc = operateFunc.apply(sqlSession, statementName);
+	                sqlTempFunc.apply(model);
+	                pendingRows++;
+	                if (null != sizer) {
+	                	pendingBytes += estimateRowBytes(model);
+	                }
+	
+	                // 分批次刷盘（达到批处理大小或字节预算时执行一次，获取真实行数）
+	                if (pendingRows >= batchSize || (byteBudget > 0 && pendingBytes >= byteBudget)) {
+	                    realOperateCount += flushAndMeasure(sqlSession, operateType, sqlName, i + 1, rowCounts, sizer, pendingRows, pendingBytes);
+	                    pendingRows = 0;
+	                    pendingBytes = 0L;
+	                    batchSize = null == sizer ? batchSize : sizer.size();
+	                }
+	            }
+	
+	            // 刷出剩余所有SQL，统计最终行数
+	            realOperateCount += flushAndMeasure(sqlSession, operateType, sqlName, list.size(), rowCounts, sizer, pendingRows, pendingBytes);
             }
 
-            // 刷出剩余所有SQL，统计最终行数
-            realOperateCount += flushAndCount(sqlSession, operateType, sqlName, list.size());
-
             log.debug("批量操作[{}][{}]完成：提交参数{}条，数据库真实影响行数：{}",
                     operateType.name(), sqlName, list.size(), realOperateCount);
+            if (null != groupConnection) {
+            	committing = true;
+            	groupConnection.commit();
+            }
+            afterWrite(isInTransactional);
 
             
 		} catch (Exception e) {
 		    log.error("批量操作[{}][{}]执行失败", operateType.name(), sqlName, e);
+		    String message = "批量操作[" + operateType.name() + "-" + sqlName + "]失败：" + e.getMessage();
+		    // 组提交：提交前失败且回滚成功时，整组确定未写入
+		    if (null != groupConnection && !committing && rollbackQuietly(groupConnection, sqlName)) {
+		    	throw new GroupRollbackException(message, e);
+		    }
 		    // 触发上层事务回滚（若有）
-		    throw new RuntimeException("批量操作[" + operateType.name() + "-" + sqlName + "]失败：" + e.getMessage(), e);
+		    throw new RuntimeException(message, e);
 		} finally {
 			
 			
 		    if (sqlSession != null) {
 		        try {
-		            if (!isInTransactional) {
+		            if (null != groupConnection) {
+		            	// 组提交已在连接上提交或回滚，恢复连接原状态后归还
+		            	groupConnection.setAutoCommit(groupAutoCommit);
+		            } else if (!isInTransactional) {
 		                sqlSession.commit();
 		            }
 		            //  智能关闭 SqlSession（适配事务/非事务）
@@ -303,12 +1412,91 @@ public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoI
     }
 
     
+    /**
+     * @return 是否已确认回滚
+     */
+    private boolean rollbackQuietly(Connection connection, String sqlName) {
+    	try {
+    		connection.rollback();
+    		return true;
+    	} catch (SQLException e) {
+    		log.error("批量操作[{}]：组提交回滚失败", sqlName, e);
+    		return false;
+    	}
+    }
+    
+    
+    /**
+     * 多行语句：按字节预算（更新还按列集合）将参数切块，每块以&lt;sqlName&gt;List语句执行一次并刷盘
+     */
+    private long executeRewritten(SqlSession sqlSession, List<P> list, String sqlName, OperateType operateType) {
+        String statementName = mapperNamespace + sqlName + "List";
+        List<List<P>> chunks = rewriteChunks(list, operateType);
+        long realCount = 0L;
+        int processedNum = 0;
+        for (List<P> chunk : chunks) {
+        	switch (operateType) {
+        		case INSERT -> sqlSession.insert(statementName, chunk);
+        		case UPDATE -> sqlSession.update(statementName, chunk);
+        		case DELETE -> sqlSession.delete(statementName, chunk);
+        	}
+        	processedNum += chunk.size();
+        	realCount += flushAndCount(sqlSession, operateType, sqlName + "List", processedNum, null);
+        }
+        log.debug("批量操作[{}][{}]：{}条参数改写为{}条多行语句", operateType.name(), sqlName, processedNum, chunks.size());
+        return realCount;
+    }
+    
+    private List<List<P>> rewriteChunks(List<P> list, OperateType operateType) {
+        long budget = getRewriteByteBudget();
+        List<List<P>> chunks = new ArrayList<>();
+        List<P> chunk = new ArrayList<>();
+        long chunkBytes = 0L;
+        Object chunkColumns = null;
+        for (P row : list) {
+        	if (null == row) {
+        		continue;
+        	}
+        	long rowBytes = estimateRowBytes(row);
+        	Object columns = OperateType.UPDATE == operateType ? updateColumnsOf(row) : null;
+        	if (!chunk.isEmpty() && (chunkBytes + rowBytes > budget || !Objects.equals(chunkColumns, columns))) {
+        		chunks.add(chunk);
+        		chunk = new ArrayList<>();
+        		chunkBytes = 0L;
+        	}
+        	chunk.add(row);
+        	chunkBytes += rowBytes;
+        	chunkColumns = columns;
+        }
+        if (!chunk.isEmpty()) {
+        	chunks.add(chunk);
+        }
+        return chunks;
+    }
+    
+    
+    /**
+     * 刷盘并统计，自适应时记录本次刷盘的行数、字节数与耗时
+     */
+    private long flushAndMeasure(SqlSession sqlSession, OperateType operateType, String sqlName, int processedNum, List<Long> rowCounts,
+    		AdaptiveBatchSizer sizer, int pendingRows, long pendingBytes) {
+        long startNanos = System.nanoTime();
+        long count = flushAndCount(sqlSession, operateType, sqlName, processedNum, rowCounts);
+        if (null != sizer) {
+        	sizer.record(pendingRows, pendingBytes, System.nanoTime() - startNanos);
+        }
+        return count;
+    }
+    
     /**
      * 刷盘并统计真实影响行数（核心工具方法）
      */
-    private long flushAndCount(SqlSession sqlSession, OperateType operateType, String sqlName, int processedNum) {
+    private long flushAndCount(SqlSession sqlSession, OperateType operateType, String sqlName, int processedNum, List<Long> rowCounts) {
         List<BatchResult> batchResults = sqlSession.flushStatements();
         long batchRealCount = getRealAffectRows(batchResults);
+        if (null != rowCounts) {
+        	collectRowCounts(batchResults, rowCounts);
+        }
         
         log.debug("批量操作[{}][{}]：已处理{}条参数，本次刷盘真实影响行数：{}",
                 operateType.name(), sqlName, processedNum, batchRealCount);
@@ -348,6 +1536,24 @@ public abstract class BaseRdbDaoImpl<P extends Principle<Long>> extends BaseDaoI
         }
         return realCount;
     }
+    
+    /**
+     * 逐条参数的影响行数（批处理结果按执行顺序排列，与参数顺序一致；无意义标记值记为0）
+     */
+    private void collectRowCounts(List<BatchResult> batchResults, List<Long> rowCounts) {
+        if (CollectionUtils.isEmpty(batchResults)) {
+            return;
+        }
+        for (BatchResult result : batchResults) {
+            int[] updateCounts = result.getUpdateCounts();
+            if (updateCounts == null) {
+                continue;
+            }
+            for (int count : updateCounts) {
+                rowCounts.add(count != MYBATIS_NO_ROW_COUNT ? (long) count : 0L);
+            }
+        }
+    }
 
 
     
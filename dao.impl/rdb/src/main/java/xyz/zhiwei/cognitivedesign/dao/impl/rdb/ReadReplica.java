@@ -0,0 +1,86 @@
+package xyz.zhiwei.cognitivedesign.dao.impl.rdb;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.mybatis.spring.SqlSessionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 只读副本
+ * 持有副本的SqlSessionTemplate（其SqlSessionFactory应指向只读DataSource，并注册StatementSettingsInterceptor），
+ * 记录在途查询数，并按探测间隔缓存复制延迟。
+ */
+public class ReadReplica {
+    private static final Logger log = LoggerFactory.getLogger(ReadReplica.class);
+    // 复制延迟的探测间隔
+    private static final long LAG_PROBE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // 探测失败时视为延迟无穷大（不参与路由）
+    private static final long UNKNOWN_LAG = Long.MAX_VALUE;
+
+    private final String name;
+    private final SqlSessionTemplate sqlSessionTemplate;
+    private final LongSupplier lagProbe;
+    
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong lastProbeNanos = new AtomicLong(System.nanoTime() - LAG_PROBE_INTERVAL_NANOS);
+    private volatile long lagMillis;
+    
+    
+    /**
+     * @param name 副本名（用于日志）
+     * @param sqlSessionTemplate 副本的SqlSessionTemplate
+     * @param lagProbe 复制延迟探测（毫秒），如查询SHOW REPLICA STATUS或心跳表；为null时视为无延迟
+     */
+    public ReadReplica(String name, SqlSessionTemplate sqlSessionTemplate, LongSupplier lagProbe) {
+    	this.name = name;
+    	this.sqlSessionTemplate = sqlSessionTemplate;
+    	this.lagProbe = lagProbe;
+    }
+    
+    
+    /**
+     * 当前复制延迟（毫秒）
+     * 超过探测间隔时由一个调用方重新探测，其余调用方使用上次结果
+     * @return
+     */
+    long lagMillis() {
+    	if (null == lagProbe) {
+    		return 0;
+    	}
+    	long now = System.nanoTime();
+    	long last = lastProbeNanos.get();
+    	if (now - last >= LAG_PROBE_INTERVAL_NANOS && lastProbeNanos.compareAndSet(last, now)) {
+    		try {
+    			lagMillis = lagProbe.getAsLong();
+    		} catch (RuntimeException e) {
+    			log.warn("只读副本[{}]复制延迟探测失败，暂不参与路由", name, e);
+    			lagMillis = UNKNOWN_LAG;
+    		}
+    	}
+    	return lagMillis;
+    }
+    
+    int outstanding() {
+    	return outstanding.get();
+    }
+    
+    void acquire() {
+    	outstanding.incrementAndGet();
+    }
+    
+    void release() {
+    	outstanding.decrementAndGet();
+    }
+    
+    
+	public String getName() {
+		return name;
+	}
+	public SqlSessionTemplate getSqlSessionTemplate() {
+		return sqlSessionTemplate;
+	}
+}
@@ -0,0 +1,57 @@
+package xyz.zhiwei.cognitivedesign.dao.impl.rdb;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 只读副本路由
+ * 在复制延迟不超过上限的副本中，选在途查询数最少者（从随机位置开始比较，数量相同时分散到不同副本）。
+ */
+class ReplicaRouter {
+
+    private final List<ReadReplica> replicas;
+    private final long maxLagMillis;
+    
+    
+    ReplicaRouter(List<ReadReplica> replicas, long maxLagMillis) {
+    	this.replicas = List.copyOf(replicas);
+    	this.maxLagMillis = maxLagMillis;
+    }
+    
+    
+    /**
+     * 选取并占用一个副本，用完须release
+     * @return 无可用副本时返回null
+     */
+    ReadReplica acquire() {
+    	int size = replicas.size();
+    	if (size == 0) {
+    		return null;
+    	}
+    	int offset = ThreadLocalRandom.current().nextInt(size);
+    	ReadReplica chosen = null;
+    	for (int i = 0; i < size; i++) {
+    		ReadReplica replica = replicas.get((offset + i) % size);
+    		if (replica.lagMillis() > maxLagMillis) {
+    			continue;
+    		}
+    		if (null == chosen || replica.outstanding() < chosen.outstanding()) {
+    			chosen = replica;
+    		}
+    	}
+    	if (null != chosen) {
+    		chosen.acquire();
+    	}
+    	return chosen;
+    }
+    
+    boolean isEmpty() {
+    	return replicas.isEmpty();
+    }
+    
+    void release(ReadReplica replica) {
+    	if (null != replica) {
+    		replica.release();
+    	}
+    }
+}
@@ -0,0 +1,66 @@
+package xyz.zhiwei.cognitivedesign.dao.impl.rdb;
+
+import java.sql.Connection;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.DeadlineContext;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.ScopedHolder;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
+
+/**
+ * JDBC语句设置拦截器
+ * 语句创建后，将当前线程作用域内指定的设置应用到JDBC语句上：
+ * 抓取行数（withFetchSize），以及截止时间剩余秒数作为查询超时（DeadlineContext，只收紧不放宽）。
+ * 需注册到SqlSessionFactory（如SqlSessionFactoryBean.setPlugins），未注册时以Mapper配置为准。
+ */
+@Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }))
+public class StatementSettingsInterceptor implements Interceptor {
+	
+	private static final ScopedHolder<Integer> FETCH_SIZE = new ScopedHolder<>();
+	
+	
+	/**
+	 * 在指定抓取行数的作用域内执行，结束后恢复外层设置
+	 * @param <T>
+	 * @param fetchSize
+	 * @param action 作用域内的查询（语句须在本线程内创建）
+	 * @return
+	 */
+	public static <T> T withFetchSize(int fetchSize, Supplier<T> action) {
+		return FETCH_SIZE.callWith(fetchSize, action);
+	}
+	
+	
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		Object result = invocation.proceed();
+		Integer fetchSize = FETCH_SIZE.get();
+		if (!(result instanceof Statement statement)) {
+			return result;
+		}
+		if (null != fetchSize) {
+			statement.setFetchSize(fetchSize);
+		}
+		Deadline deadline = DeadlineContext.current();
+		if (null != deadline) {
+			if (deadline.isExpired()) {
+				throw new SQLTimeoutException("已超过截止时间，不再执行语句");
+			}
+			int remainingSeconds = deadline.remainingSeconds();
+			int queryTimeout = statement.getQueryTimeout();
+			if (queryTimeout == 0 || remainingSeconds < queryTimeout) {
+				statement.setQueryTimeout(remainingSeconds);
+			}
+		}
+		return result;
+	}
+	
+}
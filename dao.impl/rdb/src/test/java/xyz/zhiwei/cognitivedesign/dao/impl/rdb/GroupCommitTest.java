@@ -0,0 +1,61 @@
+package xyz.zhiwei.cognitivedesign.dao.impl.rdb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import xyz.zhiwei.cognitivedesign.dao.GroupRollbackException;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImagery;
+
+/**
+ * 组提交：Spring事务外的连接为自动提交，整组仍须在一个本地事务内提交，失败时整组回滚并确认
+ */
+class GroupCommitTest {
+
+	private H2Database primary;
+	private RowDao dao;
+	
+	
+	@BeforeEach
+	void setUp() {
+		primary = new H2Database("group_primary");
+		dao = new RowDao(primary);
+	}
+	
+	
+	@Test
+	void groupIsCommittedWithPerUnitCounts() {
+		List<Long> counts = dao.saveGroup(List.of(
+				new PrincipleImagery<>(List.of(new Row(1L, "a"), new Row(2L, "b")), "add"),
+				new PrincipleImagery<>(List.of(new Row(3L, "c")), "add")));
+		
+		assertEquals(List.of(2L, 1L), counts);
+		assertEquals(3, primary.count());
+	}
+	
+	@Test
+	void failingUnitRollsBackTheWholeGroup() {
+		List<PrincipleImagery<Row>> group = List.of(
+				new PrincipleImagery<>(List.of(new Row(1L, "a")), "add"),
+				new PrincipleImagery<>(List.of(new Row(1L, "duplicate")), "add"),
+				new PrincipleImagery<>(List.of(new Row(2L, "b")), "add"));
+		
+		assertThrows(GroupRollbackException.class, () -> dao.saveGroup(group));
+		assertEquals(0, primary.count());
+	}
+	
+	@Test
+	void connectionIsReturnedInAutoCommitAfterRollback() {
+		assertThrows(GroupRollbackException.class, () -> dao.saveGroup(List.of(
+				new PrincipleImagery<>(List.of(new Row(1L, "a")), "add"),
+				new PrincipleImagery<>(List.of(new Row(1L, "duplicate")), "add"))));
+		
+		// 连接已恢复原自动提交设置：随后的提交正常写入且可见
+		assertEquals(List.of(1L), dao.saveGroup(List.of(new PrincipleImagery<>(List.of(new Row(1L, "a")), "add"))));
+		assertEquals(1, primary.count());
+	}
+}
@@ -0,0 +1,73 @@
+package xyz.zhiwei.cognitivedesign.dao.impl.rdb;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+
+/**
+ * H2内存库：与生产一致使用SpringManagedTransactionFactory（Spring事务外连接为自动提交）
+ */
+final class H2Database {
+	private static final String MAPPER = "xyz/zhiwei/cognitivedesign/dao/impl/rdb/RowDao.xml";
+
+	private final JdbcDataSource dataSource = new JdbcDataSource();
+	private final SqlSessionFactory sqlSessionFactory;
+	private final SqlSessionTemplate sqlSessionTemplate;
+	
+	
+	H2Database(String name) {
+		dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		execute("drop table if exists row_t");
+		execute("create table row_t (id bigint primary key, name varchar(64))");
+		
+		Configuration configuration = new Configuration(new Environment(name, new SpringManagedTransactionFactory(), dataSource));
+		try (InputStream mapper = H2Database.class.getClassLoader().getResourceAsStream(MAPPER)) {
+			new XMLMapperBuilder(mapper, configuration, MAPPER, configuration.getSqlFragments()).parse();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+		this.sqlSessionTemplate = new SqlSessionTemplate(sqlSessionFactory);
+	}
+	
+	
+	void execute(String sql) {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	long count() {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+				var resultSet = statement.executeQuery("select count(*) from row_t")) {
+			resultSet.next();
+			return resultSet.getLong(1);
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	JdbcDataSource getDataSource() {
+		return dataSource;
+	}
+	SqlSessionFactory getSqlSessionFactory() {
+		return sqlSessionFactory;
+	}
+	SqlSessionTemplate getSqlSessionTemplate() {
+		return sqlSessionTemplate;
+	}
+}
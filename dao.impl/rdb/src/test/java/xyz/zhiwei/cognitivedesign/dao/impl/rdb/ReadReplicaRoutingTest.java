@@ -0,0 +1,55 @@
+package xyz.zhiwei.cognitivedesign.dao.impl.rdb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.ConsistencyContext;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImagery;
+
+/**
+ * 读写分离：调用方写后固定期内走主库，其它调用方及固定期后走副本
+ * 副本不复制主库，读到写入即说明查询落在主库
+ */
+class ReadReplicaRoutingTest {
+
+	private H2Database primary;
+	private RowDao dao;
+	
+	
+	@BeforeEach
+	void setUp() {
+		primary = new H2Database("routing_primary");
+		dao = new RowDao(primary, new H2Database("routing_replica"));
+		dao.save(new PrincipleImagery<>(List.of(new Row(1L, "written")), "add"));
+		assertEquals(1, primary.count());
+	}
+	
+	
+	@Test
+	void readWithoutTokenGoesToReplica() {
+		assertEquals(0, dao.all().size());
+	}
+	
+	@Test
+	void readWithinPinWindowOfCallerTokenGoesToPrimary() {
+		long token = System.currentTimeMillis();
+		assertEquals(1, ConsistencyContext.callWith(token, dao::all).size());
+	}
+	
+	@Test
+	void pinDoesNotApplyToOtherCallers() {
+		long token = System.currentTimeMillis();
+		ConsistencyContext.callWith(token, dao::all);
+		assertEquals(0, dao.all().size());
+	}
+	
+	@Test
+	void readAfterPinWindowGoesToReplica() {
+		long token = System.currentTimeMillis() - 501;
+		assertEquals(0, ConsistencyContext.callWith(token, dao::all).size());
+	}
+}
@@ -0,0 +1,16 @@
+package xyz.zhiwei.cognitivedesign.dao.impl.rdb;
+
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+
+/**
+ * 测试本原
+ */
+public class Row extends Principle<Long> {
+	private static final long serialVersionUID = 1L;
+
+	public Row() {}
+	
+	public Row(Long id, String name) {
+		super(id, name);
+	}
+}
@@ -0,0 +1,51 @@
+package xyz.zhiwei.cognitivedesign.dao.impl.rdb;
+
+import java.util.List;
+
+import javax.sql.XADataSource;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+
+/**
+ * 测试Dao：主库与只读副本为两个H2内存库（副本不复制，用于区分读取落在哪个库）
+ */
+class RowDao extends BaseRdbDaoImpl<Row> {
+
+	private final H2Database primary;
+	private final List<ReadReplica> replicas;
+	
+	
+	RowDao(H2Database primary, H2Database... replicas) {
+		this.primary = primary;
+		this.replicas = java.util.Arrays.stream(replicas)
+				.map(replica -> new ReadReplica("replica", replica.getSqlSessionTemplate(), null)).toList();
+	}
+	
+	
+	List<Row> all() {
+		return read(template -> template.selectList(mapperNamespace + "selectAll"));
+	}
+	
+	
+	@Override
+	protected SqlSessionFactory getSqlSessionFactory() {
+		return primary.getSqlSessionFactory();
+	}
+	@Override
+	protected SqlSessionTemplate getSqlSessionTemplate() {
+		return primary.getSqlSessionTemplate();
+	}
+	@Override
+	public XADataSource getXADataSource() {
+		return primary.getDataSource();
+	}
+	@Override
+	protected List<ReadReplica> getReadReplicas() {
+		return replicas;
+	}
+	@Override
+	protected long getPrimaryPinMillis() {
+		return 500;
+	}
+}
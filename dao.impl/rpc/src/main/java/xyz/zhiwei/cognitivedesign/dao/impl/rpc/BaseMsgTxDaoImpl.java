@@ -128,16 +128,13 @@ public abstract class BaseMsgTxDaoImpl<P extends Principle<Long>> extends BaseMs
 			Message<Long> msg=null;
 			String msgStr=null;
 			try {
-				TransactionIdContext.setTransactionId(transactionImageryData);
-				msg=super.dispatchSaveMethod(transactionImageryData);
+				//事务ID仅在本次调用范围内透传
+				msg=TransactionIdContext.callWith(transactionImageryData, () -> super.dispatchSaveMethod(transactionImageryData));
 				msgStr=getJson(msg);
 				status=STATUS_SUCCESS;
 			}catch (Exception e) {
 				log.error("事务后置任务执行异常，参数：{}", getJson(transactionImageryData), e);
 				status=STATUS_FALSE;
-			}finally {
-			    //清除ThreadLocal（必须！防止内存泄漏）
-			    TransactionIdContext.clear();
 			}
 			
 			//根据更新结果，补充事务完成状态		
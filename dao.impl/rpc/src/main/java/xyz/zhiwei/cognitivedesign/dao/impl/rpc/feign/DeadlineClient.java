@@ -0,0 +1,42 @@
+package xyz.zhiwei.cognitivedesign.dao.impl.rpc.feign;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.DeadlineContext;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
+
+/**
+ * 截止时间Feign客户端
+ * 请求发出前，以当前截止时间（DeadlineContext）的剩余时间收紧连接/读取超时（只收紧不放宽）；已截止时不再发出请求。
+ */
+public class DeadlineClient implements Client {
+	
+	private final Client delegate;
+	
+	public DeadlineClient(Client delegate) {
+		this.delegate = delegate;
+	}
+
+	
+	@Override
+	public Response execute(Request request, Request.Options options) throws IOException {
+		Deadline deadline = DeadlineContext.current();
+		if (null == deadline) {
+			return delegate.execute(request, options);
+		}
+		if (deadline.isExpired()) {
+			throw new IOException("已超过截止时间，不再发出请求：" + request.url());
+		}
+		long remainingMillis = Math.max(1L, deadline.remainingMillis());
+		Request.Options bounded = new Request.Options(
+				Math.min(options.connectTimeoutUnit().toMillis(options.connectTimeout()), remainingMillis), TimeUnit.MILLISECONDS,
+				Math.min(options.readTimeoutUnit().toMillis(options.readTimeout()), remainingMillis), TimeUnit.MILLISECONDS,
+				options.isFollowRedirects());
+		return delegate.execute(request, bounded);
+	}
+	
+}
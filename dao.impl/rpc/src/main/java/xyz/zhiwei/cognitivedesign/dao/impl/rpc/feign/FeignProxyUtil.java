@@ -4,6 +4,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.springframework.core.env.Environment;
 
+import feign.Client;
 import feign.Contract;
 import feign.Feign;
 import feign.Request;
@@ -75,6 +76,7 @@ public class FeignProxyUtil {
                 .contract(feignContract)        // 注入的契约（父类/子类实现）
                 .requestInterceptor(istioHeaderInterceptor) // 注入的Istio拦截器
                 .options(options)
+                .client(new DeadlineClient(new Client.Default(null, null))) // 按截止时间收紧超时
                 .target(apiClass, serviceUrl);
     }
 
@@ -95,6 +97,7 @@ public class FeignProxyUtil {
                 .contract(feignContract)        // 注入的契约（父类/子类实现）
                 .requestInterceptor(istioHeaderInterceptor) // 注入的Istio拦截器
                 .options(options)
+                .client(new DeadlineClient(new Client.Default(null, null))) // 按截止时间收紧超时
                 .target(apiClass, serviceUrl);
     }
 }
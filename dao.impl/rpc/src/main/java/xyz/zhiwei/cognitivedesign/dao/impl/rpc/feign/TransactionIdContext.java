@@ -1,47 +1,43 @@
 package xyz.zhiwei.cognitivedesign.dao.impl.rpc.feign;
 
 import java.util.List;
+import java.util.function.Supplier;
 
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.ScopedHolder;
 import xyz.zhiwei.cognitivedesign.morphism.Principle;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImagery;
 
 /**
- * 事务ID上下文工具（ThreadLocal保证线程隔离）
+ * 事务ID上下文工具（作用域绑定）
+ * 事务ID只在callWith的调用范围内可见，调用结束即恢复外层绑定。
  */
-public class TransactionIdContext {
-    // 定义ThreadLocal存储事务ID（String类型）
-    private static final ThreadLocal<String> TRANSACTION_ID_HOLDER = new ThreadLocal<>();
+public final class TransactionIdContext {
+    private static final ScopedHolder<String> TRANSACTION_ID_HOLDER = new ScopedHolder<>();
 
+    private TransactionIdContext() {}
     
     
-    // 设置事务ID到当前线程
-    public static <P extends Principle<?>> void setTransactionId(List<P> list) {
-    	if(null==list) {
-    		return;
-    	}
-    	
+    /**
+     * 在事务ID的作用域内执行
+     * 事务ID取自PrincipleImagery的id，为空时沿用外层绑定
+     * @param <P>
+     * @param <R>
+     * @param list
+     * @param action
+     * @return action的返回值
+     */
+    public static <P extends Principle<?>, R> R callWith(List<P> list, Supplier<R> action) {
+    	String transactionId = null;
 		if(list instanceof PrincipleImagery) {
-			PrincipleImagery<P> principleImagery=(PrincipleImagery<P>) list;
-			if(null!=principleImagery.getId()) {
-		        TRANSACTION_ID_HOLDER.set(principleImagery.getId());
-			}
+			transactionId = ((PrincipleImagery<P>) list).getId();
 		}
-    	
+		return TRANSACTION_ID_HOLDER.callWith(transactionId, action);
     }
     
-    // 设置事务ID到当前线程
-//    public static void setTransactionId(String transactionId) {
-//        TRANSACTION_ID_HOLDER.set(transactionId);
-//    }
 
-    // 从当前线程获取事务ID
+    // 获取当前作用域的事务ID
     public static String getTransactionId() {
         return TRANSACTION_ID_HOLDER.get();
     }
-
-    // 清除当前线程的事务ID（防止内存泄漏）
-    public static void clear() {
-        TRANSACTION_ID_HOLDER.remove();
-    }
     
-}
\ No newline at end of file
+}
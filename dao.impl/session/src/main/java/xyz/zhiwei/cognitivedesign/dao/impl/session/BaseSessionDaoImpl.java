@@ -5,9 +5,13 @@ import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisConnectionUtils;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.util.Assert;
 
@@ -15,12 +19,16 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.annotation.PostConstruct;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.Jedis;
 import xyz.zhiwei.cognitivedesign.dao.Dao;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.DeadlineContext;
 import xyz.zhiwei.cognitivedesign.dao.daoimpl.methodcache.SaveMethodPrefixEnum;
 import xyz.zhiwei.cognitivedesign.dao.impl.session.config.RedisConfigSession;
 import xyz.zhiwei.cognitivedesign.morphism.Principle;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImagery;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
 
 
 
@@ -61,7 +69,7 @@ public class BaseSessionDaoImpl<P extends Principle<String>> implements Dao<P> {
 		if(null!=qualifier.getSimilar()) {
 			P similar=qualifier.getSimilar();
 			if(null!=similar.getId()) {
-				P p=getSessionAttribute(similar);
+				P p=withinDeadline(() -> getSessionAttribute(similar));
 				return Arrays.asList(p) ;
 			}
 		}
@@ -74,6 +82,10 @@ public class BaseSessionDaoImpl<P extends Principle<String>> implements Dao<P> {
 
 	@Override
 	public Long save(PrincipleImagery<P> principleImagery) {
+		return withinDeadline(() -> saveImagery(principleImagery));
+    }
+	
+	private Long saveImagery(PrincipleImagery<P> principleImagery) {
 		String desc=principleImagery.getDescribe();
 
 		int cc=0;
@@ -162,6 +174,46 @@ public class BaseSessionDaoImpl<P extends Principle<String>> implements Dao<P> {
 
 
 
+	/*
+	 * ===============================  截止时间 ============================================
+	 */
+	
+	/**
+	 * 在当前截止时间（DeadlineContext）内执行Redis命令
+	 * 作用域内绑定同一个连接，并将其读超时收紧为剩余时间（只收紧不放宽），结束后恢复并解绑
+	 * @param <T>
+	 * @param action
+	 * @return
+	 */
+	protected <T> T withinDeadline(Supplier<T> action) {
+		Deadline deadline = DeadlineContext.current();
+		if (null == deadline) {
+			return action.get();
+		}
+		if (deadline.isExpired()) {
+			throw new RuntimeException("已超过截止时间，不再执行Redis命令");
+		}
+		
+		RedisConnectionFactory factory = redisTemplate.getConnectionFactory();
+		RedisConnection connection = RedisConnectionUtils.bindConnection(factory);
+		Connection jedisConnection = connection.getNativeConnection() instanceof Jedis jedis ? jedis.getConnection() : null;
+		int outerTimeout = null == jedisConnection ? 0 : jedisConnection.getSoTimeout();
+		try {
+			long remainingMillis = Math.max(1L, deadline.remainingMillis());
+			if (null != jedisConnection && (outerTimeout == 0 || remainingMillis < outerTimeout)) {
+				jedisConnection.setSoTimeout((int) remainingMillis);
+			}
+			return action.get();
+		} finally {
+			if (null != jedisConnection) {
+				jedisConnection.setSoTimeout(outerTimeout);
+			}
+			RedisConnectionUtils.unbindConnection(factory);
+		}
+	}
+	
+	
+	
 	/*
 	 * ===============================  辅助方法 ============================================
 	 */
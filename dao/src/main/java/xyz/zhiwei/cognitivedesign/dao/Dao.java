@@ -1,6 +1,7 @@
 package xyz.zhiwei.cognitivedesign.dao;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import xyz.zhiwei.cognitivedesign.morphism.Principle;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImagery;
@@ -21,5 +22,16 @@ public interface Dao<P extends Principle<?>>{
     
     Long save(PrincipleImagery<P> principleImagery);
     
+    /**
+     * 流式查询（大结果集）
+     * 返回的流持有底层资源，调用方须关闭；默认实现由subCollection结果适配而来
+     * @param qualifier
+     * @return
+     */
+    default Stream<P> streamSubCollection(PrincipleQualifier<P> qualifier) {
+    	List<P> list = subCollection(qualifier);
+    	return null == list ? Stream.empty() : list.stream();
+    }
+    
 	
 }
@@ -0,0 +1,32 @@
+package xyz.zhiwei.cognitivedesign.dao;
+
+import java.util.List;
+
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+
+/**
+ * 本原集存取-查询合并支持
+ * 同一批次内同类本原的多个可合并限定符（如多个pk），合并为一次列表查询（如pkList），再按行拆回各限定符。
+ * @param <P>
+ */
+public interface FusibleDao<P extends Principle<?>> extends Dao<P>{
+
+	/**
+	 * 合并后的查询描述
+	 * 合并查询的限定符只设置similarList（各原限定符的similar）
+	 * @param describe 原限定符的查询描述
+	 * @return 合并后使用的列表查询描述；不可合并时返回null
+	 */
+	String fusedDescribe(String describe);
+	
+	/**
+	 * 从合并查询的结果中拆出属于原限定符的行
+	 * 返回值应与原限定符单独查询的结果一致
+	 * @param qualifier 原限定符
+	 * @param fusedRows 合并查询的结果
+	 * @return
+	 */
+	List<P> splitFused(PrincipleQualifier<P> qualifier, List<P> fusedRows);
+	
+}
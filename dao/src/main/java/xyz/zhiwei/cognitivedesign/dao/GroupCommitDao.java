@@ -0,0 +1,32 @@
+package xyz.zhiwei.cognitivedesign.dao;
+
+import java.util.List;
+
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImagery;
+
+/**
+ * 本原集存取-组提交支持
+ * 非事务写入中，同类本原、同一写入描述的多个本原块（可来自不同请求）合并为一次批处理、一次提交，再按块给出各自的影响行数。
+ * @param <P>
+ */
+public interface GroupCommitDao<P extends Principle<?>> extends Dao<P>{
+
+	/**
+	 * 写入描述是否可组提交
+	 * 合并后的写入应与各块依次单独写入的结果一致
+	 * @param describe 写入描述
+	 * @return
+	 */
+	boolean isGroupCommittable(String describe);
+	
+	/**
+	 * 组提交
+	 * 整组成功或整组失败：确认整组已回滚时抛出GroupRollbackException，调用方可逐块单独重试；
+	 * 其它异常表示写入结果未知，调用方不重试
+	 * @param imageries 写入描述相同的本原块
+	 * @return 与入参一一对应的影响行数
+	 */
+	List<Long> saveGroup(List<PrincipleImagery<P>> imageries);
+	
+}
@@ -0,0 +1,13 @@
+package xyz.zhiwei.cognitivedesign.dao;
+
+/**
+ * 组提交失败且已确认整组回滚
+ * 只有抛出本异常时，调用方才可逐块单独重试；其它异常表示写入结果未知，不应重试。
+ */
+public class GroupRollbackException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	public GroupRollbackException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,29 @@
+package xyz.zhiwei.cognitivedesign.dao;
+
+import java.util.List;
+
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+
+/**
+ * 本原集存取-主键查询支持
+ * 标明哪些查询只按主键匹配（如pk、pkList），供实体缓存按(本原类, id)命中，未命中的主键合并为一次批量查询。
+ * @param <P>
+ */
+public interface IdentityDao<P extends Principle<?>> extends Dao<P>{
+
+	/**
+	 * 查询描述是否为按主键查询
+	 * 即限定符的similar（单个）或similarList（多个）只以id参与匹配
+	 * @param describe 查询描述
+	 * @return
+	 */
+	boolean isIdLookup(String describe);
+	
+	/**
+	 * 按主键批量查询
+	 * @param similarList 只需设置id
+	 * @return 查到的行（顺序不限，未查到的主键不返回）
+	 */
+	List<P> listByIds(List<P> similarList);
+	
+}
@@ -1,20 +1,28 @@
 package xyz.zhiwei.cognitivedesign.dao;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import org.springframework.context.ApplicationContext;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.jta.JtaTransactionManager;
 
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.AdaptiveLimiter;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.DaoBeanCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.EntityCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.ResultCache;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.read.ReadAccess;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.write.WriteAccess;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.ImagePackage;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ResponsePackage;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleSourceLane;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.QualifiersLane;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
 import xyz.zhiwei.cognitivedesign.service.PrincipleAccessInterface;
+import xyz.zhiwei.cognitivedesign.service.ReadScope;
 
 
 /**
@@ -32,6 +40,8 @@ public class PrincipleAccessImpl implements PrincipleAccessInterface{
 
     //====运行依赖====
     private DaoBeanCache daoBeanCache;
+    private EntityCache entityCache;
+    private ResultCache resultCache;
     private ReadAccess readAccess;
     private WriteAccess writeAccess;
     
@@ -51,8 +61,10 @@ public class PrincipleAccessImpl implements PrincipleAccessInterface{
     	this.daoWriteExecutor=daoWriteExecutor;
     	
     	this.daoBeanCache=new DaoBeanCache(this.context);
-    	this.readAccess=new ReadAccess(this.daoBeanCache,this.daoScheduleExecutor,this.daoReadExecutor);
-    	this.writeAccess=new WriteAccess(this.daoBeanCache,this.jtaTransactionManager,this.daoScheduleExecutor,this.daoWriteExecutor);
+    	this.entityCache=new EntityCache(this.daoBeanCache);
+    	this.resultCache=new ResultCache(this.daoBeanCache);
+    	this.readAccess=new ReadAccess(this.daoBeanCache,this.entityCache,this.resultCache,this.daoScheduleExecutor,this.daoReadExecutor);
+    	this.writeAccess=new WriteAccess(this.daoBeanCache,this.entityCache,this.resultCache,this.jtaTransactionManager,this.daoScheduleExecutor,this.daoWriteExecutor);
     	
     }
     
@@ -60,6 +72,39 @@ public class PrincipleAccessImpl implements PrincipleAccessInterface{
     
     
     
+    /**
+     * 虚拟线程模式
+     * 调度/读/写任务均为每任务一个虚拟线程，JDBC、Redis、Feign等阻塞IO只挂起虚拟线程而不占用平台线程，
+     * 无需再手工为三个线程池定容。实现了CustomReadThreadPool/CustomWriteThreadPool的Dao仍使用其自定义线程池。
+     * @param context
+     * @param transactionManager
+     * @return
+     */
+    public static PrincipleAccessImpl ofVirtualThreads(ApplicationContext context,PlatformTransactionManager transactionManager) {
+    	return new PrincipleAccessImpl(context, transactionManager,
+    			virtualThreadExecutor("dao-schedule-vt-"),
+    			virtualThreadExecutor("dao-read-vt-"),
+    			virtualThreadExecutor("dao-write-vt-"));
+    }
+    
+    private static Executor virtualThreadExecutor(String namePrefix) {
+    	return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+    }
+    
+    
+    
+    
+    
+    /**
+     * 各Dao读隔舱的当前状态（并发上限/执行中/排队/拒绝数），供监控指标采集
+     * @return 本原类 -> 状态快照
+     */
+    public Map<Class<?>, AdaptiveLimiter.Snapshot> getReadLimits(){
+    	return readAccess.getReadLimits();
+    }
+    
+    
+    
     /**
      * 读取指定数据集
      * @param qualifiersLaneList
@@ -69,7 +114,73 @@ public class PrincipleAccessImpl implements PrincipleAccessInterface{
     public List<PrincipleSourceLane> query(List<QualifiersLane> qualifiersLaneList){
 
     	
-    	return readAccess.query(qualifiersLaneList);
+    	return readAccess.query(qualifiersLaneList, null);
+    }
+    
+    
+    /**
+     * 异步读取指定数据集
+     * @param qualifiersLaneList
+     * @return
+     */
+    @Override
+    public CompletableFuture<List<PrincipleSourceLane>> queryAsync(List<QualifiersLane> qualifiersLaneList){
+    	
+    	return readAccess.queryAsync(qualifiersLaneList, null);
+    }
+    
+    
+    /**
+     * 在截止时间内读取指定数据集
+     * @param qualifiersLaneList
+     * @param deadline
+     * @return
+     */
+    @Override
+    public List<PrincipleSourceLane> query(List<QualifiersLane> qualifiersLaneList, Deadline deadline){
+    	
+    	return readAccess.query(qualifiersLaneList, deadline);
+    }
+    
+    
+    /**
+     * 在截止时间内异步读取指定数据集
+     * @param qualifiersLaneList
+     * @param deadline
+     * @return
+     */
+    @Override
+    public CompletableFuture<List<PrincipleSourceLane>> queryAsync(List<QualifiersLane> qualifiersLaneList, Deadline deadline){
+    	
+    	return readAccess.queryAsync(qualifiersLaneList, deadline);
+    }
+    
+    
+    /**
+     * 在读取作用域内读取指定数据集
+     * @param qualifiersLaneList
+     * @param deadline
+     * @param scope
+     * @return
+     */
+    @Override
+    public List<PrincipleSourceLane> query(List<QualifiersLane> qualifiersLaneList, Deadline deadline, ReadScope scope){
+    	
+    	return readAccess.queryAsync(qualifiersLaneList, deadline, scope).join();
+    }
+    
+    
+    /**
+     * 在读取作用域内异步读取指定数据集
+     * @param qualifiersLaneList
+     * @param deadline
+     * @param scope
+     * @return
+     */
+    @Override
+    public CompletableFuture<List<PrincipleSourceLane>> queryAsync(List<QualifiersLane> qualifiersLaneList, Deadline deadline, ReadScope scope){
+    	
+    	return readAccess.queryAsync(qualifiersLaneList, deadline, scope);
     }
     
 
@@ -83,7 +194,48 @@ public class PrincipleAccessImpl implements PrincipleAccessInterface{
     @Override
 	public ResponsePackage save(ImagePackage imagePackage) {
     	
-    	return writeAccess.save(imagePackage);
+    	return writeAccess.save(imagePackage, null);
+    }
+    
+    
+	/**
+	 * 异步存储相关数据集
+	 * 
+	 * @param imagePackage
+	 * @return
+	 */
+    @Override
+	public CompletableFuture<ResponsePackage> saveAsync(ImagePackage imagePackage) {
+    	
+    	return writeAccess.saveAsync(imagePackage, null);
+    }
+    
+    
+	/**
+	 * 在截止时间内存储相关数据集
+	 * 
+	 * @param imagePackage
+	 * @param deadline
+	 * @return
+	 */
+    @Override
+	public ResponsePackage save(ImagePackage imagePackage, Deadline deadline) {
+    	
+    	return writeAccess.save(imagePackage, deadline);
+    }
+    
+    
+	/**
+	 * 在截止时间内异步存储相关数据集
+	 * 
+	 * @param imagePackage
+	 * @param deadline
+	 * @return
+	 */
+    @Override
+	public CompletableFuture<ResponsePackage> saveAsync(ImagePackage imagePackage, Deadline deadline) {
+    	
+    	return writeAccess.saveAsync(imagePackage, deadline);
     }
     
     
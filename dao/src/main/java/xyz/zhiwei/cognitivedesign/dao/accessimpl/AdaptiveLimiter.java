@@ -0,0 +1,269 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 自适应并发限制（隔舱）
+ * AIMD：单元耗时未明显超过基线耗时时，并发上限加性增长（每个上限周期+1）；明显超过时乘性收缩。
+ * 达到上限的任务排队，排队已满时立即拒绝。基线耗时取观测到的最小耗时，并缓慢上浮以适应下游变化。
+ * 以ReentrantLock保护状态（不使用synchronized，避免虚拟线程钉住）。
+ */
+public class AdaptiveLimiter {
+	
+	public static final int DEFAULT_MIN_LIMIT = 1;
+	public static final int DEFAULT_MAX_LIMIT = 200;
+	public static final int DEFAULT_INITIAL_LIMIT = 20;
+	public static final int DEFAULT_MAX_QUEUE = 1000;
+	
+	// 耗时超过基线的倍数时视为过载
+	private static final double TOLERANCE = 2.0;
+	// 过载时的收缩系数
+	private static final double BACKOFF = 0.9;
+	// 基线上浮速度：每个样本向样本耗时靠近的比例
+	private static final double BASELINE_DRIFT = 0.01;
+
+	private final String name;
+	private final int minLimit;
+	private final int maxLimit;
+	private final int maxQueue;
+	
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Queue<Pending<?>> queue = new ArrayDeque<>();
+	private double limit;
+	private int inFlight;
+	private double baselineNanos;
+	
+	private final AtomicLong rejected = new AtomicLong();
+	
+	
+	public AdaptiveLimiter(String name, int minLimit, int maxLimit, int maxQueue) {
+		this.name = name;
+		this.minLimit = Math.max(1, minLimit);
+		this.maxLimit = Math.max(this.minLimit, maxLimit);
+		this.maxQueue = Math.max(0, maxQueue);
+		this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, DEFAULT_INITIAL_LIMIT));
+	}
+	
+	/**
+	 * 按Dao的配置创建（未实现CustomReadLimit时使用默认配置）
+	 * @param name
+	 * @param dao
+	 * @return
+	 */
+	public static AdaptiveLimiter forDao(String name, Object dao) {
+		if (dao instanceof CustomReadLimit custom) {
+			return new AdaptiveLimiter(name, custom.getMinReadLimit(), custom.getMaxReadLimit(), custom.getMaxReadQueue());
+		}
+		return new AdaptiveLimiter(name, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_MAX_QUEUE);
+	}
+	
+	
+	/**
+	 * 提交任务
+	 * 未达上限时立即在executor上执行；否则排队；排队已满时返回以RejectedExecutionException失败的Future。
+	 * 返回的Future被取消（或已完成）时，尚在排队的任务不再执行。
+	 * @param <T>
+	 * @param task
+	 * @param executor
+	 * @return
+	 */
+	public <T> CompletableFuture<T> submit(Supplier<T> task, Executor executor) {
+		return submit(new Pending<>(release -> task.get(), false, executor, new CompletableFuture<>()));
+	}
+	
+	/**
+	 * 提交持有许可的任务（如打开游标的流式查询）
+	 * 任务返回后许可仍被占用，直到任务调用入参release（如流关闭时；重复调用无副作用）；任务异常时立即释放。
+	 * 结果未能交付（Future已被取消）且为AutoCloseable时将其关闭，由关闭释放许可。耗时按任务返回计。
+	 * @param <T>
+	 * @param task release -> 结果
+	 * @param executor
+	 * @return
+	 */
+	public <T> CompletableFuture<T> submitHolding(Function<Runnable, T> task, Executor executor) {
+		return submit(new Pending<>(task, true, executor, new CompletableFuture<>()));
+	}
+	
+	/**
+	 * 尝试提交：有空闲许可时立即执行，否则不排队，返回以RejectedExecutionException失败的Future（不计入拒绝数）
+	 * 用于可放弃的附加负载（如对冲查询）
+	 * @param <T>
+	 * @param task
+	 * @param executor
+	 * @return
+	 */
+	public <T> CompletableFuture<T> trySubmit(Supplier<T> task, Executor executor) {
+		Pending<T> pending = new Pending<>(release -> task.get(), false, executor, new CompletableFuture<>());
+		lock.lock();
+		try {
+			if (inFlight >= permits()) {
+				return CompletableFuture.failedFuture(new RejectedExecutionException("[" + name + "]并发已满，放弃执行"));
+			}
+			inFlight++;
+		} finally {
+			lock.unlock();
+		}
+		start(pending);
+		return pending.future();
+	}
+	
+	private <T> CompletableFuture<T> submit(Pending<T> pending) {
+		lock.lock();
+		try {
+			if (inFlight < permits()) {
+				inFlight++;
+			} else if (queue.size() < maxQueue) {
+				queue.add(pending);
+				return pending.future();
+			} else {
+				rejected.incrementAndGet();
+				return CompletableFuture.failedFuture(new RejectedExecutionException("[" + name + "]并发已满且排队已满，拒绝执行"));
+			}
+		} finally {
+			lock.unlock();
+		}
+		start(pending);
+		return pending.future();
+	}
+	
+	
+	/**
+	 * 当前状态
+	 * @return
+	 */
+	public Snapshot snapshot() {
+		lock.lock();
+		try {
+			return new Snapshot(name, permits(), inFlight, queue.size(), rejected.get(), (long) baselineNanos / 1_000_000);
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	
+	
+	private <T> void start(Pending<T> pending) {
+		try {
+			pending.executor().execute(() -> {
+				long startNanos = System.nanoTime();
+				AtomicBoolean released = new AtomicBoolean();
+				Runnable releaser = () -> {
+					if (released.compareAndSet(false, true)) {
+						release(-1);
+					}
+				};
+				T value;
+				try {
+					value = pending.task().apply(releaser);
+				} catch (Throwable e) {
+					pending.future().completeExceptionally(e);
+					if (released.compareAndSet(false, true)) {
+						release(System.nanoTime() - startNanos);
+					}
+					return;
+				}
+				boolean delivered = pending.future().complete(value);
+				if (!pending.holding()) {
+					if (released.compareAndSet(false, true)) {
+						release(System.nanoTime() - startNanos);
+					}
+					return;
+				}
+				record(System.nanoTime() - startNanos);
+				if (!delivered && value instanceof AutoCloseable closeable) {
+					try {
+						closeable.close();
+					} catch (Exception e) {
+						// 无人消费的结果，关闭失败只能放弃
+					}
+				}
+				if (!delivered) {
+					releaser.run();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			pending.future().completeExceptionally(e);
+			release(-1);
+		}
+	}
+	
+	private void record(long latencyNanos) {
+		lock.lock();
+		try {
+			adjust(latencyNanos);
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * 任务结束（持有许可的任务为释放许可时）：调整上限并放行排队任务
+	 * @param latencyNanos 小于0表示不参与调整（未执行，或耗时已单独记录）
+	 */
+	private void release(long latencyNanos) {
+		List<Pending<?>> toStart = new ArrayList<>();
+		lock.lock();
+		try {
+			inFlight--;
+			if (latencyNanos >= 0) {
+				adjust(latencyNanos);
+			}
+			while (inFlight < permits() && !queue.isEmpty()) {
+				Pending<?> next = queue.poll();
+				if (next.future().isDone()) {
+					continue;
+				}
+				inFlight++;
+				toStart.add(next);
+			}
+		} finally {
+			lock.unlock();
+		}
+		toStart.forEach(this::start);
+	}
+	
+	private void adjust(long latencyNanos) {
+		if (baselineNanos <= 0 || latencyNanos < baselineNanos) {
+			baselineNanos = latencyNanos;
+		} else {
+			baselineNanos += (latencyNanos - baselineNanos) * BASELINE_DRIFT;
+		}
+		
+		if (latencyNanos > baselineNanos * TOLERANCE) {
+			limit = Math.max(minLimit, limit * BACKOFF);
+		} else if (inFlight + 1 >= permits() / 2) {
+			// 只在上限被充分使用时增长，避免空闲时上限无意义地膨胀
+			limit = Math.min(maxLimit, limit + 1.0 / limit);
+		}
+	}
+	
+	private int permits() {
+		return (int) limit;
+	}
+	
+	
+	private record Pending<T>(Function<Runnable, T> task, boolean holding, Executor executor, CompletableFuture<T> future) {}
+	
+	
+	/**
+	 * 状态快照（用于监控指标）
+	 * @param name 名称
+	 * @param limit 当前并发上限
+	 * @param inFlight 执行中
+	 * @param queued 排队中
+	 * @param rejected 累计拒绝数
+	 * @param baselineMillis 基线耗时（毫秒）
+	 */
+	public record Snapshot(String name, int limit, int inFlight, int queued, long rejected, long baselineMillis) {}
+}
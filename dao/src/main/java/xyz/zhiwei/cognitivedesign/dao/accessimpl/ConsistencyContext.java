@@ -0,0 +1,34 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+import java.util.function.Supplier;
+
+/**
+ * 一致性令牌上下文（作用域绑定）
+ * 读泳道在执行Dao单元时绑定调用方的一致性令牌（调用方最近一次存储完成的时刻，毫秒时间戳），
+ * 读写分离的Dao实现在该时刻后的固定期内将调用方的查询固定走主库，保证调用方读到自己的写入。
+ * 令牌只在callWith的调用范围内可见，调用结束即恢复外层绑定。
+ */
+public final class ConsistencyContext {
+	private static final ScopedHolder<Long> TOKEN_HOLDER = new ScopedHolder<>();
+
+	private ConsistencyContext() {}
+	
+	
+	/**
+	 * 在一致性令牌的作用域内执行
+	 * @param <R>
+	 * @param consistencyToken 小于等于0时沿用外层绑定
+	 * @param action
+	 * @return action的返回值
+	 */
+	public static <R> R callWith(long consistencyToken, Supplier<R> action) {
+		return TOKEN_HOLDER.callWith(consistencyToken > 0 ? consistencyToken : null, action);
+	}
+	
+	
+	// 获取当前作用域的一致性令牌，无则为0
+	public static long current() {
+		Long token = TOKEN_HOLDER.get();
+		return null == token ? 0L : token;
+	}
+}
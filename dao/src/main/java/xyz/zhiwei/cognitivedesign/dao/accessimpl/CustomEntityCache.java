@@ -0,0 +1,18 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+/**
+ * 自定义实体缓存接口
+ * Dao同时实现IdentityDao时生效：按主键的查询先查本节点的(本原类, id)缓存，未命中的主键合并为一次批量查询；
+ * 经本框架写入的本原随写入失效（事务组在提交后失效）。
+ * 缓存保存本原的快照（本原须可序列化，否则不缓存），各调用方取得各自的副本；绕过本框架的写入不会使缓存失效。
+ */
+public interface CustomEntityCache {
+
+    /**
+     * 获取缓存的最大实体数（超过后淘汰最久未访问的实体）
+     * 小于等于0时不启用
+     * @return int
+     */
+    int getEntityCacheSize();
+
+}
@@ -0,0 +1,23 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+/**
+ * 自定义跨请求批量读取接口
+ * Dao同时实现FusibleDao并开启了合并（CustomReadFusion）时生效：短时间窗口内（跨请求）收集到的同类可合并查询（如多个pk），合并为一次列表查询（如pkList）
+ */
+public interface CustomReadBatching {
+
+    /**
+     * 获取收集窗口（毫秒）
+     * 窗口内首个查询到达后开始计时，小于等于0时不启用
+     * @return long
+     */
+    long getBatchWindowMillis();
+
+    /**
+     * 获取单批最大查询数
+     * 达到后立即发起，不再等待窗口结束；小于等于1时不启用
+     * @return int
+     */
+    int getMaxBatchSize();
+
+}
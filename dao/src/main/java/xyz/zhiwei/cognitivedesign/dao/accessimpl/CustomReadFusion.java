@@ -0,0 +1,18 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+/**
+ * 自定义查询合并接口
+ * Dao同时实现FusibleDao时生效：按查询描述开启，同一批次（及CustomReadBatching的收集窗口）内同类的可合并查询（如多个pk）
+ * 合并为一次列表查询（如pkList），再按行拆回各查询。
+ * 拆分须与单独查询的结果一致；条件查询（如fk）的拆分按样例等值匹配，Mapper条件不是等值匹配时不应开启。
+ */
+public interface CustomReadFusion {
+
+    /**
+     * 查询描述是否开启合并
+     * @param describe 原查询描述
+     * @return boolean
+     */
+    boolean isFusionEnabled(String describe);
+
+}
@@ -0,0 +1,29 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+import xyz.zhiwei.cognitivedesign.dao.Dao;
+
+/**
+ * 自定义对冲读取接口
+ * 单元在耗时分位数内未完成时再发起一次相同查询，先完成者胜出。仅适用于幂等的读取。
+ */
+public interface CustomReadHedging {
+
+    /**
+     * 获取触发对冲的耗时分位数（如0.95：超过近期95分位耗时仍未完成则对冲）
+     * @return double
+     */
+    double getHedgePercentile();
+
+    /**
+     * 获取对冲预算：对冲查询数占查询数的比例上限（如0.05即最多5%的额外负载）
+     * @return double
+     */
+    double getHedgeBudget();
+
+    /**
+     * 获取对冲查询的目标Dao（如备用Dao、只读副本），须与本Dao存取同一本原类
+     * @return 为null时对本Dao再发起一次
+     */
+    Dao<?> getHedgeDao();
+
+}
@@ -0,0 +1,28 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+/**
+ * 自定义读并发限制接口
+ * 每个Dao的读单元都经过一个自适应并发限制（隔舱），未实现本接口的Dao使用AdaptiveLimiter的默认配置
+ */
+public interface CustomReadLimit {
+
+    /**
+     * 获取并发上限的下界
+     * @return int
+     */
+    int getMinReadLimit();
+
+    /**
+     * 获取并发上限的上界
+     * @return int
+     */
+    int getMaxReadLimit();
+
+    /**
+     * 获取排队上限
+     * 达到并发上限后的请求排队等待，排队已满时立即拒绝
+     * @return int
+     */
+    int getMaxReadQueue();
+
+}
@@ -0,0 +1,26 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+/**
+ * 自定义结果缓存接口
+ * 按查询描述开启：整份subCollection结果按(本原类, 描述, 条件样例的规范形式, 范围, 分页窗口)缓存，
+ * 经本框架写入该本原类时整类失效（事务组在提交后失效）。
+ * 缓存保存结果的快照（本原须可序列化，否则不缓存），各调用方取得各自的副本；绕过本框架的写入不会使缓存失效，只能等待过期。
+ */
+public interface CustomResultCache {
+
+    /**
+     * 获取查询描述对应结果的存活时间（毫秒）
+     * 小于等于0时该描述不缓存
+     * @param describe 查询描述
+     * @return long
+     */
+    long getResultCacheTtlMillis(String describe);
+
+    /**
+     * 获取缓存的最大结果数（超过后淘汰最久未访问的结果）
+     * 小于等于0时不启用
+     * @return int
+     */
+    int getResultCacheSize();
+
+}
@@ -0,0 +1,23 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+/**
+ * 自定义跨请求组提交接口
+ * Dao同时实现GroupCommitDao时生效：非事务组中，短时间窗口内（跨请求）收集到的同类可组提交写入（如多个add），合并为一次批处理、一次提交
+ */
+public interface CustomWriteBatching {
+
+    /**
+     * 获取收集窗口（毫秒）
+     * 窗口内首个写入到达后开始计时，小于等于0时不启用
+     * @return long
+     */
+    long getCommitWindowMillis();
+
+    /**
+     * 获取单次提交的最大本原块数
+     * 达到后立即提交，不再等待窗口结束；小于等于1时不启用
+     * @return int
+     */
+    int getMaxCommitUnits();
+
+}
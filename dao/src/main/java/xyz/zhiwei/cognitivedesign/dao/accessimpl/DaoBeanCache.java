@@ -123,28 +123,23 @@ public class DaoBeanCache extends ConcurrentHashMap<Class<?>, Dao<?>>{
 
     /**
      * 初始化缓存变量（优先解析直接实现的Dao接口泛型）
+     * 仅在构造时执行一次，无需加锁
      * @param context Spring应用上下文
      */
     private void initDaoCache(ApplicationContext context) {
-        if (this.isEmpty()) { // 第一次检查（无锁）
-            synchronized (this) { // 双重检查锁，确保初始化唯一性
-                if (this.isEmpty()) {
-                    // 1. 从Spring容器获取所有Dao实现类Bean
-                    @SuppressWarnings("rawtypes")
-                    Map<String, Dao> daoBeans = context.getBeansOfType(Dao.class);
-
-                    // 2. 遍历解析并缓存
-                    for (Dao<?> daoImpl : daoBeans.values()) {
-                        // 工具类：解AOP代理，获取原始类
-                        Class<?> daoImplClass = AopUtils.getTargetClass(daoImpl);
-                        // 工具类：解析泛型实体类（优先接口、后父类）
-                        Class<?> genericEntityClass = DaoBeanCacheUtils.resolveGenericEntityClass(daoImplClass, Dao.class);
-
-                        if (genericEntityClass != null) {
-                            this.put(genericEntityClass, daoImpl);
-                        }
-                    }
-                }
+        // 1. 从Spring容器获取所有Dao实现类Bean
+        @SuppressWarnings("rawtypes")
+        Map<String, Dao> daoBeans = context.getBeansOfType(Dao.class);
+
+        // 2. 遍历解析并缓存
+        for (Dao<?> daoImpl : daoBeans.values()) {
+            // 工具类：解AOP代理，获取原始类
+            Class<?> daoImplClass = AopUtils.getTargetClass(daoImpl);
+            // 工具类：解析泛型实体类（优先接口、后父类）
+            Class<?> genericEntityClass = DaoBeanCacheUtils.resolveGenericEntityClass(daoImplClass, Dao.class);
+
+            if (genericEntityClass != null) {
+                this.put(genericEntityClass, daoImpl);
             }
         }
         //打印容器里的内容
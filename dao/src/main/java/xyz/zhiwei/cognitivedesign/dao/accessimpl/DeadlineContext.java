@@ -0,0 +1,46 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+import java.util.function.Supplier;
+
+import xyz.zhiwei.cognitivedesign.service.Deadline;
+
+/**
+ * 截止时间上下文（作用域绑定）
+ * 读写泳道在执行Dao单元时绑定本次调用的截止时间，Dao实现据此下推各自的超时（JDBC/Redis/Feign）。
+ * 截止时间只在callWith的调用范围内可见，调用结束即恢复外层绑定。
+ */
+public final class DeadlineContext {
+	private static final ScopedHolder<Deadline> DEADLINE_HOLDER = new ScopedHolder<>();
+
+	private DeadlineContext() {}
+	
+	
+	/**
+	 * 在截止时间的作用域内执行
+	 * @param <R>
+	 * @param deadline 为空时沿用外层绑定
+	 * @param action
+	 * @return action的返回值
+	 */
+	public static <R> R callWith(Deadline deadline, Supplier<R> action) {
+		return DEADLINE_HOLDER.callWith(deadline, action);
+	}
+	
+	
+	// 获取当前作用域的截止时间，无则为null
+	public static Deadline current() {
+		return DEADLINE_HOLDER.get();
+	}
+	
+	
+	/**
+	 * 单元超时（毫秒）：静态单元超时与截止时间剩余时间取小
+	 * @param deadline 可为空
+	 * @param timeoutSeconds 静态单元超时（TimeOutConfig）
+	 * @return 已截止时为0
+	 */
+	public static long unitTimeoutMillis(Deadline deadline, Integer timeoutSeconds) {
+		long timeoutMillis = timeoutSeconds * 1000L;
+		return null == deadline ? timeoutMillis : Math.min(timeoutMillis, deadline.remainingMillis());
+	}
+}
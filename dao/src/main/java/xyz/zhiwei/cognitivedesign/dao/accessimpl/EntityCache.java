@@ -0,0 +1,273 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import xyz.zhiwei.cognitivedesign.dao.Dao;
+import xyz.zhiwei.cognitivedesign.dao.IdentityDao;
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+
+/**
+ * 实体缓存：(本原类, id) -> 本原
+ * 仅为实现了CustomEntityCache与IdentityDao的Dao建立分区，各分区容量有界，按最近访问淘汰。
+ * 写入使分区代数递增：代数变化期间加载的结果不回填，避免并发写入后回填旧值；
+ * 失效后的回填以失效时刻为一致性令牌加载，读写分离的Dao在固定期内走主库，避免回填副本上尚未复制的旧值。
+ * 缓存保存本原的快照，取出的是各调用方独有的副本。
+ */
+public class EntityCache {
+    private static final Logger log = LoggerFactory.getLogger(EntityCache.class);
+    
+    // 本原类 -> 分区（构造后只读）
+    private final Map<Class<?>, Segment> segments = new HashMap<>();
+    
+    
+    public EntityCache(DaoBeanCache daoBeanCache) {
+    	daoBeanCache.forEach((principleClazz, dao) -> {
+    		if (dao instanceof CustomEntityCache custom && dao instanceof IdentityDao && custom.getEntityCacheSize() > 0) {
+    			segments.put(principleClazz, new Segment(custom.getEntityCacheSize()));
+    			log.info("【实体缓存】{} 容量{}", principleClazz.getName(), custom.getEntityCacheSize());
+    		}
+    	});
+    }
+    
+    
+	/*
+	 * ================================================= 读 ===============================================================
+	 */
+    
+    /**
+     * 限定符能否由缓存服务
+     * 仅限只设置了similar/similarList的按主键查询（子类限定符可能携带额外条件；投影查询只有部分字段，不可缓存为实体）
+     * @param qualifier
+     * @param dao 执行查询的Dao
+     * @return
+     */
+    public boolean covers(PrincipleQualifier<?> qualifier, Dao<?> dao) {
+    	if (null == qualifier || !(dao instanceof IdentityDao<?> identityDao) || !segments.containsKey(qualifier.getPrincipleClazz())) {
+    		return false;
+    	}
+    	if (qualifier.getClass() != PrincipleQualifier.class || qualifier.isStreaming() || !identityDao.isIdLookup(qualifier.getDescribe())
+    			|| null != qualifier.getProjection() || null != qualifier.getRangeStart() || null != qualifier.getRangeEnd()
+    			|| null != qualifier.getLimitStart() || null != qualifier.getLimitEnd()) {
+    		return false;
+    	}
+    	return null != qualifier.getSimilarList() || (null != qualifier.getSimilar() && null != qualifier.getSimilar().getId());
+    }
+    
+    
+    /**
+     * 全部主键命中时直接给出结果
+     * @param <P>
+     * @param qualifier 须满足covers
+     * @return 有未命中的主键时返回null
+     */
+    public <P extends Principle<?>> List<P> peek(PrincipleQualifier<P> qualifier) {
+    	Segment segment = segments.get(qualifier.getPrincipleClazz());
+    	Map<Object, P> found = new HashMap<>();
+    	List<P> misses = lookup(segment, similarsOf(qualifier), found);
+    	return misses.isEmpty() ? assemble(qualifier, found) : null;
+    }
+    
+    
+    /**
+     * 读取：命中的主键取自缓存，未命中的主键合并为一次批量查询并回填
+     * 与Dao单独查询的结果一致：单个主键未查到时为[null]，多个主键时只含查到的行
+     * @param <P>
+     * @param qualifier 须满足covers
+     * @param dao
+     * @return
+     */
+    public <P extends Principle<?>> List<P> read(PrincipleQualifier<P> qualifier, IdentityDao<P> dao) {
+    	Segment segment = segments.get(qualifier.getPrincipleClazz());
+    	long stamp = segment.generation();
+    	Map<Object, P> found = new HashMap<>();
+    	List<P> misses = lookup(segment, similarsOf(qualifier), found);
+    	if (!misses.isEmpty()) {
+    		List<P> loaded = ConsistencyContext.callWith(segment.invalidatedAtMillis(), () -> dao.listByIds(misses));
+    		if (null != loaded) {
+    			List<P> rows = loaded.stream().filter(row -> null != row && null != row.getId()).toList();
+    			segment.putAll(rows, stamp);
+    			rows.forEach(row -> found.putIfAbsent(row.getId(), row));
+    		}
+    	}
+    	return assemble(qualifier, found);
+    }
+    
+    
+	/*
+	 * ================================================= 写 ===============================================================
+	 */
+    
+    /**
+     * 是否缓存了该本原类
+     * @param principleClazz
+     * @return
+     */
+    public boolean caches(Class<?> principleClazz) {
+    	return null != principleClazz && segments.containsKey(principleClazz);
+    }
+    
+    
+    /**
+     * 使写入的本原失效
+     * 无id的本原（新增）不在缓存中，但同样递增代数，使并发加载的结果不回填
+     * @param principleClazz
+     * @param principles
+     */
+    public void invalidate(Class<?> principleClazz, Collection<? extends Principle<?>> principles) {
+    	Segment segment = null == principleClazz ? null : segments.get(principleClazz);
+    	if (null == segment || null == principles) {
+    		return;
+    	}
+    	List<Object> ids = principles.stream().filter(Objects::nonNull).<Object>map(Principle::getId).filter(Objects::nonNull).toList();
+    	segment.invalidate(ids);
+    }
+    
+    
+	/*
+	 * ================================================= 辅助 ===============================================================
+	 */
+    
+    private static <P extends Principle<?>> List<P> similarsOf(PrincipleQualifier<P> qualifier) {
+    	if (null == qualifier.getSimilarList()) {
+    		return List.of(qualifier.getSimilar());
+    	}
+    	return qualifier.getSimilarList().stream().filter(s -> null != s && null != s.getId()).toList();
+    }
+    
+    /**
+     * 查缓存，命中的放入found
+     * @return 未命中的（主键去重）
+     */
+    @SuppressWarnings("unchecked")
+    private static <P extends Principle<?>> List<P> lookup(Segment segment, List<P> similars, Map<Object, P> found) {
+    	List<P> misses = new ArrayList<>();
+    	Map<Object, Boolean> seen = new HashMap<>();
+    	for (P similar : similars) {
+    		Object id = similar.getId();
+    		if (null != seen.put(id, Boolean.TRUE)) {
+    			continue;
+    		}
+    		P hit = (P) segment.get(id);
+    		if (null == hit) {
+    			misses.add(similar);
+    		} else {
+    			found.put(id, hit);
+    		}
+    	}
+    	return misses;
+    }
+    
+    private static <P extends Principle<?>> List<P> assemble(PrincipleQualifier<P> qualifier, Map<Object, P> found) {
+    	if (null == qualifier.getSimilarList()) {
+    		// 与pk单查一致：未查到时为[null]
+    		return Stream.of(found.get(qualifier.getSimilar().getId())).toList();
+    	}
+    	List<P> rows = new ArrayList<>();
+    	Map<Object, Boolean> seen = new HashMap<>();
+    	for (P similar : similarsOf(qualifier)) {
+    		P row = found.get(similar.getId());
+    		if (null != row && null == seen.put(similar.getId(), Boolean.TRUE)) {
+    			rows.add(row);
+    		}
+    	}
+    	return rows;
+    }
+    
+    
+    /**
+     * 单个本原类的缓存分区
+     */
+    private static final class Segment {
+    	private final Lock lock = new ReentrantLock();
+    	private final LinkedHashMap<Object, RowSnapshot> entries;
+    	// 写入代数，受lock保护
+    	private long generation;
+    	// 最近一次失效的时刻（毫秒时间戳，未失效过为0），受lock保护
+    	private long invalidatedAtMillis;
+    	
+    	Segment(int capacity) {
+    		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+    			protected boolean removeEldestEntry(Map.Entry<Object, RowSnapshot> eldest) {
+    				return size() > capacity;
+    			}
+    		};
+    	}
+    	
+    	long generation() {
+    		lock.lock();
+    		try {
+    			return generation;
+    		} finally {
+    			lock.unlock();
+    		}
+    	}
+    	
+    	long invalidatedAtMillis() {
+    		lock.lock();
+    		try {
+    			return invalidatedAtMillis;
+    		} finally {
+    			lock.unlock();
+    		}
+    	}
+    	
+    	// 取出副本（反序列化在锁外进行）
+    	Principle<?> get(Object id) {
+    		RowSnapshot snapshot;
+    		lock.lock();
+    		try {
+    			snapshot = entries.get(id);
+    		} finally {
+    			lock.unlock();
+    		}
+    		return null == snapshot ? null : snapshot.copy();
+    	}
+    	
+    	void putAll(List<? extends Principle<?>> rows, long stamp) {
+    		// 快照在锁外拍摄；调用方持有的行此后可能被修改，不影响缓存
+    		Map<Object, RowSnapshot> snapshots = new LinkedHashMap<>();
+    		rows.forEach(row -> {
+    			RowSnapshot snapshot = RowSnapshot.of(row);
+    			if (null != snapshot) {
+    				snapshots.put(row.getId(), snapshot);
+    			}
+    		});
+    		lock.lock();
+    		try {
+    			if (stamp != generation) {
+    				return;
+    			}
+    			entries.putAll(snapshots);
+    		} finally {
+    			lock.unlock();
+    		}
+    	}
+    	
+    	void invalidate(List<Object> ids) {
+    		lock.lock();
+    		try {
+    			generation++;
+    			invalidatedAtMillis = System.currentTimeMillis();
+    			ids.forEach(entries::remove);
+    		} finally {
+    			lock.unlock();
+    		}
+    	}
+    }
+}
@@ -0,0 +1,233 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import xyz.zhiwei.cognitivedesign.dao.Dao;
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.CanonicalForm;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+
+/**
+ * 结果缓存：限定符的规范形式 -> subCollection结果
+ * 仅为实现了CustomResultCache的Dao建立分区，各分区容量有界，按最近访问淘汰。
+ * 失效以本原类为标签：该类任一写入使分区代数递增并清空分区，代数变化期间加载的结果不回填；
+ * 失效后的加载以失效时刻为一致性令牌，读写分离的Dao在固定期内走主库，避免缓存副本上尚未复制的旧结果。
+ * 缓存保存结果的快照，取出的是各调用方独有的副本。
+ * 过期前按概率提前刷新（加载越慢、越临近过期，越可能由某个读取者提前重新加载），避免同时过期引起的击穿。
+ */
+public class ResultCache {
+    private static final Logger log = LoggerFactory.getLogger(ResultCache.class);
+    
+    // 提前刷新的激进程度，1.0为常用取值
+    private static final double EARLY_REFRESH_BETA = 1.0;
+    
+    // 本原类 -> 分区（构造后只读）
+    private final Map<Class<?>, Segment> segments = new HashMap<>();
+    
+    
+    public ResultCache(DaoBeanCache daoBeanCache) {
+    	daoBeanCache.forEach((principleClazz, dao) -> {
+    		if (dao instanceof CustomResultCache custom && custom.getResultCacheSize() > 0) {
+    			segments.put(principleClazz, new Segment(custom.getResultCacheSize()));
+    			log.info("【结果缓存】{} 容量{}", principleClazz.getName(), custom.getResultCacheSize());
+    		}
+    	});
+    }
+    
+    
+	/*
+	 * ================================================= 读 ===============================================================
+	 */
+    
+    /**
+     * 限定符能否由缓存服务
+     * 仅限Dao为其描述开启了缓存、且只使用基础字段的限定符（子类限定符可能携带额外条件）
+     * @param qualifier
+     * @param dao 执行查询的Dao
+     * @return
+     */
+    public boolean covers(PrincipleQualifier<?> qualifier, Dao<?> dao) {
+    	if (null == qualifier || !(dao instanceof CustomResultCache custom) || !segments.containsKey(qualifier.getPrincipleClazz())) {
+    		return false;
+    	}
+    	return qualifier.getClass() == PrincipleQualifier.class && !qualifier.isStreaming() && null != qualifier.getDescribe()
+    			&& custom.getResultCacheTtlMillis(qualifier.getDescribe()) > 0;
+    }
+    
+    
+    /**
+     * 未过期且未被选中提前刷新时给出缓存的结果
+     * @param qualifier 须满足covers
+     * @return 需要（重新）加载时返回null
+     */
+    public List<? extends Principle<?>> peek(PrincipleQualifier<?> qualifier) {
+    	Entry entry = segments.get(qualifier.getPrincipleClazz()).get(keyOf(qualifier));
+    	if (null == entry) {
+    		return null;
+    	}
+    	double jitter = entry.loadNanos() * EARLY_REFRESH_BETA * -Math.log(ThreadLocalRandom.current().nextDouble());
+    	return System.nanoTime() + (long) jitter < entry.expiresAtNanos() ? entry.rows().copy() : null;
+    }
+    
+    
+    /**
+     * 加载并缓存结果
+     * @param <P>
+     * @param qualifier 须满足covers
+     * @param dao 执行查询的Dao（提供存活时间）
+     * @param loader
+     * @return
+     */
+    public <P extends Principle<?>> List<P> load(PrincipleQualifier<P> qualifier, Dao<?> dao, Supplier<List<P>> loader) {
+    	Segment segment = segments.get(qualifier.getPrincipleClazz());
+    	List<Object> key = keyOf(qualifier);
+    	long stamp = segment.generation();
+    	long startNanos = System.nanoTime();
+    	List<P> rows = ConsistencyContext.callWith(segment.invalidatedAtMillis(), loader);
+    	RowSnapshot snapshot = null == rows ? null : RowSnapshot.of(new ArrayList<>(rows));
+    	if (null != snapshot) {
+    		long now = System.nanoTime();
+    		long ttlNanos = TimeUnit.MILLISECONDS.toNanos(((CustomResultCache) dao).getResultCacheTtlMillis(qualifier.getDescribe()));
+    		segment.put(key, new Entry(snapshot, now + ttlNanos, now - startNanos), stamp);
+    	}
+    	return rows;
+    }
+    
+    
+	/*
+	 * ================================================= 写 ===============================================================
+	 */
+    
+    /**
+     * 是否缓存了该本原类
+     * @param principleClazz
+     * @return
+     */
+    public boolean caches(Class<?> principleClazz) {
+    	return null != principleClazz && segments.containsKey(principleClazz);
+    }
+    
+    
+    /**
+     * 使本原类的全部结果失效
+     * @param principleClazz
+     */
+    public void invalidate(Class<?> principleClazz) {
+    	Segment segment = null == principleClazz ? null : segments.get(principleClazz);
+    	if (null != segment) {
+    		segment.invalidate();
+    	}
+    }
+    
+    
+	/*
+	 * ================================================= 辅助 ===============================================================
+	 */
+    
+    /**
+     * 键取限定符当下的规范形式（快照），之后修改限定符不影响已缓存的键
+     */
+    private static List<Object> keyOf(PrincipleQualifier<?> qualifier) {
+    	return Arrays.asList(qualifier.getDescribe(),
+    			CanonicalForm.of(qualifier.getSimilar()), CanonicalForm.of(qualifier.getSimilarList()),
+    			CanonicalForm.of(qualifier.getRangeStart()), CanonicalForm.of(qualifier.getRangeEnd()),
+    			qualifier.getLimitStart(), qualifier.getLimitEnd(), qualifier.getTotalMode(),
+    			null == qualifier.getProjection() ? null : new TreeSet<>(qualifier.getProjection()));
+    }
+    
+    
+    /**
+     * 缓存的结果
+     * @param rows 结果的快照
+     * @param expiresAtNanos 过期时刻
+     * @param loadNanos 加载耗时，用于提前刷新
+     */
+    private record Entry(RowSnapshot rows, long expiresAtNanos, long loadNanos) {}
+    
+    
+    /**
+     * 单个本原类的缓存分区
+     */
+    private static final class Segment {
+    	private final Lock lock = new ReentrantLock();
+    	private final LinkedHashMap<List<Object>, Entry> entries;
+    	// 写入代数，受lock保护
+    	private long generation;
+    	// 最近一次失效的时刻（毫秒时间戳，未失效过为0），受lock保护
+    	private long invalidatedAtMillis;
+    	
+    	Segment(int capacity) {
+    		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+    			protected boolean removeEldestEntry(Map.Entry<List<Object>, Entry> eldest) {
+    				return size() > capacity;
+    			}
+    		};
+    	}
+    	
+    	long generation() {
+    		lock.lock();
+    		try {
+    			return generation;
+    		} finally {
+    			lock.unlock();
+    		}
+    	}
+    	
+    	long invalidatedAtMillis() {
+    		lock.lock();
+    		try {
+    			return invalidatedAtMillis;
+    		} finally {
+    			lock.unlock();
+    		}
+    	}
+    	
+    	Entry get(List<Object> key) {
+    		lock.lock();
+    		try {
+    			return entries.get(key);
+    		} finally {
+    			lock.unlock();
+    		}
+    	}
+    	
+    	void put(List<Object> key, Entry entry, long stamp) {
+    		lock.lock();
+    		try {
+    			if (stamp == generation) {
+    				entries.put(key, entry);
+    			}
+    		} finally {
+    			lock.unlock();
+    		}
+    	}
+    	
+    	void invalidate() {
+    		lock.lock();
+    		try {
+    			generation++;
+    			invalidatedAtMillis = System.currentTimeMillis();
+    			entries.clear();
+    		} finally {
+    			lock.unlock();
+    		}
+    	}
+    }
+}
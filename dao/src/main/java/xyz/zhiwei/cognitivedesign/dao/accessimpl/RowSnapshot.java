@@ -0,0 +1,82 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 缓存内容的快照：以序列化形式保存，每次取出反序列化为新的实例
+ * 本原是可变的，缓存只保存快照，各调用方取得各自的副本，修改副本不影响缓存与其他调用方。
+ */
+final class RowSnapshot {
+    private static final Logger log = LoggerFactory.getLogger(RowSnapshot.class);
+
+	private final byte[] bytes;
+	
+	private RowSnapshot(byte[] bytes) {
+		this.bytes = bytes;
+	}
+	
+	
+	/**
+	 * 拍摄快照
+	 * @param value
+	 * @return 无法序列化时返回null（不缓存）
+	 */
+	static RowSnapshot of(Serializable value) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ObjectOutputStream stream = new ObjectOutputStream(out)) {
+			stream.writeObject(value);
+		} catch (IOException | RuntimeException e) {
+			log.warn("【缓存快照】{}无法序列化，不缓存", value.getClass().getName(), e);
+			return null;
+		}
+		return new RowSnapshot(out.toByteArray());
+	}
+	
+	
+	/**
+	 * 取出副本
+	 * @param <T>
+	 * @return 无法反序列化时返回null（视为未命中）
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T copy() {
+		try (ObjectInputStream stream = new ContextObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return (T) stream.readObject();
+		} catch (IOException | ClassNotFoundException | RuntimeException e) {
+			log.warn("【缓存快照】反序列化失败，视为未命中", e);
+			return null;
+		}
+	}
+	
+	
+	/**
+	 * 优先以线程上下文类加载器解析类（本原类位于应用的类加载器中）
+	 */
+	private static final class ContextObjectInputStream extends ObjectInputStream {
+		ContextObjectInputStream(ByteArrayInputStream in) throws IOException {
+			super(in);
+		}
+		
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			ClassLoader loader = Thread.currentThread().getContextClassLoader();
+			if (null != loader) {
+				try {
+					return Class.forName(desc.getName(), false, loader);
+				} catch (ClassNotFoundException e) {
+					// 回退到默认解析
+				}
+			}
+			return super.resolveClass(desc);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+import java.util.function.Supplier;
+
+/**
+ * 作用域绑定的线程上下文载体
+ * 值只在callWith的调用范围内可见，调用结束即恢复外层绑定，不存在需要手动清理的线程状态，
+ * 适用于虚拟线程等大量短生命周期线程的场景。
+ * 注：ScopedValue在Java 21中仍是预览特性，故以同等语义的ThreadLocal实现，调用方无需感知底层载体。
+ * @param <T>
+ */
+public final class ScopedHolder<T> {
+	// 仅在callWith内部写入
+	private final ThreadLocal<T> holder = new ThreadLocal<>();
+	
+	
+	/**
+	 * 在值的作用域内执行
+	 * @param <R>
+	 * @param value 为空时沿用外层绑定
+	 * @param action
+	 * @return action的返回值
+	 */
+	public <R> R callWith(T value, Supplier<R> action) {
+		if (null == value) {
+			return action.get();
+		}
+		T outer = holder.get();
+		holder.set(value);
+		try {
+			return action.get();
+		} finally {
+			// 恢复外层绑定（无外层时移除，防止内存泄漏）
+			if (null == outer) {
+				holder.remove();
+			} else {
+				holder.set(outer);
+			}
+		}
+	}
+	
+	
+	// 获取当前作用域的值，无则为null
+	public T get() {
+		return holder.get();
+	}
+}
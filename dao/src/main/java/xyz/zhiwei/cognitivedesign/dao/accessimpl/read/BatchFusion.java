@@ -0,0 +1,142 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl.read;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import xyz.zhiwei.cognitivedesign.dao.Dao;
+import xyz.zhiwei.cognitivedesign.dao.FusibleDao;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.CustomReadFusion;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.DaoBeanCache;
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleFallback;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifiers;
+
+/**
+ * 批次查询合并
+ * 将批次内同一本原类、同一可合并描述的多个限定符合并为一次列表查询，结果按行拆回各自位置；
+ * 其余限定符按单元查询。所有单元均经过单飞表，与其它泳道的相同限定符共享结果。
+ */
+class BatchFusion {
+    private static final Logger log = LoggerFactory.getLogger(BatchFusion.class);
+
+    private DaoBeanCache daoBeanCache;
+    
+    
+    BatchFusion(DaoBeanCache daoBeanCache) {
+    	this.daoBeanCache=daoBeanCache;
+    }
+    
+    
+    /**
+     * 规划一个批次的查询
+     * @param qualifierGroup
+     * @param singleFlight
+     * @param unitLoader 单元查询：(限定符, 位置) -> 结果
+     * @return 与入参位置一一对应的结果
+     */
+    List<CompletableFuture<List<? extends Principle<?>>>> plan(PrincipleQualifiers qualifierGroup, SingleFlight singleFlight,
+    		BiFunction<PrincipleQualifier<?>, Integer, CompletableFuture<List<? extends Principle<?>>>> unitLoader) {
+    	
+    	int size = qualifierGroup.size();
+    	List<CompletableFuture<List<? extends Principle<?>>>> futures = new ArrayList<>(size);
+    	// (本原类, 合并描述) -> 限定符 -> 所在位置
+    	Map<List<Object>, Map<PrincipleQualifier<?>, List<Integer>>> fusionGroups = new LinkedHashMap<>();
+    	
+    	for (int i = 0; i < size; i++) {
+    		futures.add(null);
+    		PrincipleQualifier<?> qualifier = qualifierGroup.get(i);
+    		if (null == qualifier) {
+    			futures.set(i, CompletableFuture.completedFuture(new ArrayList<>()));
+    			continue;
+    		}
+    		String fusedDescribe = fusedDescribeOf(qualifier);
+    		if (null == fusedDescribe) {
+    			int index = i;
+    			futures.set(i, singleFlight.computeIfAbsent(qualifier, () -> unitLoader.apply(qualifier, index)));
+    			continue;
+    		}
+    		fusionGroups.computeIfAbsent(List.of(qualifier.getPrincipleClazz(), fusedDescribe), k -> new LinkedHashMap<>())
+    			.computeIfAbsent(qualifier, k -> new ArrayList<>()).add(i);
+    	}
+    	
+    	for (Map.Entry<List<Object>, Map<PrincipleQualifier<?>, List<Integer>>> group : fusionGroups.entrySet()) {
+    		Map<PrincipleQualifier<?>, List<Integer>> members = group.getValue();
+    		if (members.size() == 1) {
+    			// 只有一个不同的限定符，无需合并
+    			Map.Entry<PrincipleQualifier<?>, List<Integer>> member = members.entrySet().iterator().next();
+    			PrincipleQualifier<?> qualifier = member.getKey();
+    			int index = member.getValue().get(0);
+    			CompletableFuture<List<? extends Principle<?>>> future = singleFlight.computeIfAbsent(qualifier, () -> unitLoader.apply(qualifier, index));
+    			member.getValue().forEach(i -> futures.set(i, future));
+    			continue;
+    		}
+    		fuse((String) group.getKey().get(1), members, singleFlight, unitLoader, futures);
+    	}
+    	return futures;
+    }
+    
+    
+    /**
+     * 合并查询一组限定符
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+	private void fuse(String fusedDescribe, Map<PrincipleQualifier<?>, List<Integer>> members, SingleFlight singleFlight,
+    		BiFunction<PrincipleQualifier<?>, Integer, CompletableFuture<List<? extends Principle<?>>>> unitLoader,
+    		List<CompletableFuture<List<? extends Principle<?>>>> futures) {
+    	
+    	PrincipleQualifier first = members.keySet().iterator().next();
+    	Class principleClazz = first.getPrincipleClazz();
+    	FusibleDao fusibleDao = (FusibleDao) daoBeanCache.getDaoBeanByPrincipleClass(principleClazz);
+    	
+    	List similarList = new ArrayList<>(members.size());
+    	members.keySet().forEach(qualifier -> similarList.add(qualifier.getSimilar()));
+    	PrincipleQualifier fusedQualifier = new PrincipleQualifier(principleClazz, similarList);
+    	fusedQualifier.setDescribe(fusedDescribe);
+    	
+    	int firstIndex = members.values().iterator().next().get(0);
+    	log.debug("合并{}个[{}]限定符为一次[{}]查询", members.size(), first.getDescribe(), fusedDescribe);
+    	// 合并查询本身也经过单飞表，其它泳道的相同合并批次可复用
+    	CompletableFuture<List<? extends Principle<?>>> fusedFuture = singleFlight.computeIfAbsent(fusedQualifier, () -> unitLoader.apply(fusedQualifier, firstIndex));
+    	
+    	for (Map.Entry<PrincipleQualifier<?>, List<Integer>> member : members.entrySet()) {
+    		PrincipleQualifier qualifier = member.getKey();
+    		CompletableFuture<List<? extends Principle<?>>> future = singleFlight.computeIfAbsent(qualifier, () -> fusedFuture
+    				.<List<? extends Principle<?>>>thenApply(rows -> rows instanceof PrincipleFallback
+    						? new PrincipleFallback<>()
+    						: fusibleDao.splitFused(qualifier, (List) rows))
+    				.exceptionally(e -> {
+    					log.error("合并查询结果拆分异常，已设置空结果", e);
+    					return new PrincipleFallback<>();
+    				}));
+    		member.getValue().forEach(i -> futures.set(i, future));
+    	}
+    }
+    
+    
+    /**
+     * 可合并时返回合并后的查询描述
+     * 仅合并Dao开启了合并（CustomReadFusion）且只设置了similar的限定符（子类限定符可能携带额外条件，不合并；投影可能缺少拆分所需字段，不合并）
+     */
+    String fusedDescribeOf(PrincipleQualifier<?> qualifier) {
+    	if (qualifier.getClass() != PrincipleQualifier.class || qualifier.isStreaming() || null == qualifier.getSimilar() || null == qualifier.getDescribe()
+    			|| null != qualifier.getSimilarList() || null != qualifier.getRangeStart() || null != qualifier.getRangeEnd()
+    			|| null != qualifier.getLimitStart() || null != qualifier.getLimitEnd() || null != qualifier.getProjection()) {
+    		return null;
+    	}
+    	Dao<?> dao = daoBeanCache.get(qualifier.getPrincipleClazz());
+    	if (!(dao instanceof FusibleDao) || !(dao instanceof CustomReadFusion fusion) || !fusion.isFusionEnabled(qualifier.getDescribe())) {
+    		return null;
+    	}
+    	String fusedDescribe = ((FusibleDao<?>) dao).fusedDescribe(qualifier.getDescribe());
+    	return Objects.equals(fusedDescribe, qualifier.getDescribe()) ? null : fusedDescribe;
+    }
+}
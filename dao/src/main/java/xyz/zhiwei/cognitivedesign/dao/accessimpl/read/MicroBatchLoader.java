@@ -0,0 +1,198 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl.read;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import xyz.zhiwei.cognitivedesign.dao.FusibleDao;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.AdaptiveLimiter;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.CustomReadBatching;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.DeadlineContext;
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleFallback;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
+
+/**
+ * 跨请求批量读取
+ * 同一本原类、同一合并描述的查询在收集窗口内排队，窗口结束或达到单批上限时合并为一次列表查询，
+ * 结果按行拆回各调用方。窗口内相同的限定符共享同一结果。
+ * 合并查询在成员中最早的截止时间内执行；发起时已截止的成员不再参与，得到兜底结果。
+ */
+class MicroBatchLoader {
+    private static final Logger log = LoggerFactory.getLogger(MicroBatchLoader.class);
+
+    // (本原类, 合并描述) -> 收集中的批次
+    private final Map<List<Object>, Batch> pendingBatches = new ConcurrentHashMap<>();
+    
+    
+    /**
+     * 是否对该Dao启用
+     */
+    static boolean enabled(CustomReadBatching batching) {
+    	return batching.getBatchWindowMillis() > 0 && batching.getMaxBatchSize() > 1;
+    }
+    
+    
+    /**
+     * 加入收集中的批次
+     * @param qualifier 原限定符
+     * @param fusedDescribe 合并后的查询描述
+     * @param dao
+     * @param batching
+     * @param deadline 调用方的截止时间，可为空
+     * @param limiter 本原类的隔舱，合并查询占用一个许可；可为空
+     * @param executor 合并查询执行的线程池
+     * @return 原限定符的结果（跨请求共享，调用方不应直接修改其完成状态）
+     */
+    CompletableFuture<List<? extends Principle<?>>> load(PrincipleQualifier<?> qualifier, String fusedDescribe,
+    		FusibleDao<?> dao, CustomReadBatching batching, Deadline deadline, AdaptiveLimiter limiter, Executor executor) {
+    	
+    	List<Object> key = List.of(qualifier.getPrincipleClazz(), fusedDescribe);
+    	int maxBatchSize = batching.getMaxBatchSize();
+    	long window = batching.getBatchWindowMillis();
+    	
+    	@SuppressWarnings("unchecked")
+    	CompletableFuture<List<? extends Principle<?>>>[] result = new CompletableFuture[1];
+    	Batch[] full = new Batch[1];
+    	pendingBatches.compute(key, (k, batch) -> {
+    		if (null == batch) {
+    			Batch fresh = new Batch();
+    			CompletableFuture.delayedExecutor(window, TimeUnit.MILLISECONDS, executor)
+    				.execute(() -> flush(k, fresh, fusedDescribe, dao, limiter, executor));
+    			batch = fresh;
+    		}
+    		// 共享同一结果的调用方中，以最宽松的截止时间作为该成员的截止时间
+    		boolean joined = batch.members.containsKey(qualifier);
+    		result[0] = batch.members.computeIfAbsent(qualifier, q -> new CompletableFuture<>());
+    		batch.deadlines.put(qualifier, joined ? laterOf(batch.deadlines.get(qualifier), deadline) : deadline);
+    		if (batch.members.size() >= maxBatchSize) {
+    			full[0] = batch;
+    			return null;
+    		}
+    		return batch;
+    	});
+    	
+    	if (null != full[0]) {
+    		// 已从收集表移除，窗口到期时的flush不会重复发起
+    		submit(full[0], fusedDescribe, dao, limiter, executor);
+    	}
+    	return result[0];
+    }
+    
+    
+    /**
+     * 窗口到期：批次仍在收集表中时发起
+     */
+    private void flush(List<Object> key, Batch batch, String fusedDescribe, FusibleDao<?> dao, AdaptiveLimiter limiter, Executor executor) {
+    	if (pendingBatches.remove(key, batch)) {
+    		submit(batch, fusedDescribe, dao, limiter, executor);
+    	}
+    }
+    
+    
+    /**
+     * 经隔舱发起合并查询；隔舱拒绝时各调用方得到兜底结果
+     */
+    private void submit(Batch batch, String fusedDescribe, FusibleDao<?> dao, AdaptiveLimiter limiter, Executor executor) {
+    	if (null == limiter) {
+    		executor.execute(() -> dispatch(batch, fusedDescribe, dao));
+    		return;
+    	}
+    	limiter.submit(() -> {
+    		dispatch(batch, fusedDescribe, dao);
+    		return null;
+    	}, executor).whenComplete((v, e) -> {
+    		if (null != e) {
+    			log.warn("跨请求合并查询被隔舱拒绝，已设置空结果", e);
+    			batch.members.values().forEach(future -> future.complete(new PrincipleFallback<>()));
+    		}
+    	});
+    }
+    
+    
+    /**
+     * 发起合并查询并拆分结果：剔除已截止的成员，在其余成员最早的截止时间内查询
+     */
+    private void dispatch(Batch batch, String fusedDescribe, FusibleDao<?> dao) {
+    	Map<PrincipleQualifier<?>, CompletableFuture<List<? extends Principle<?>>>> members = new LinkedHashMap<>();
+    	batch.members.forEach((qualifier, future) -> {
+    		Deadline deadline = batch.deadlines.get(qualifier);
+    		if (null != deadline && deadline.isExpired()) {
+    			future.complete(new PrincipleFallback<>());
+    		} else {
+    			members.put(qualifier, future);
+    		}
+    	});
+    	if (members.isEmpty()) {
+    		return;
+    	}
+    	Deadline deadline = members.keySet().stream().map(batch.deadlines::get).filter(Objects::nonNull)
+    			.min(Comparator.comparingLong(Deadline::remainingMillis)).orElse(null);
+    	DeadlineContext.callWith(deadline, () -> {
+    		query(members, fusedDescribe, dao);
+    		return null;
+    	});
+    }
+    
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void query(Map<PrincipleQualifier<?>, CompletableFuture<List<? extends Principle<?>>>> members, String fusedDescribe, FusibleDao dao) {
+    	try {
+    		if (members.size() == 1) {
+    			Map.Entry<PrincipleQualifier<?>, CompletableFuture<List<? extends Principle<?>>>> only = members.entrySet().iterator().next();
+    			only.getValue().complete(orEmpty(dao.subCollection(only.getKey())));
+    			return;
+    		}
+    		
+    		PrincipleQualifier first = members.keySet().iterator().next();
+    		List similarList = new ArrayList<>(members.size());
+    		members.keySet().forEach(qualifier -> similarList.add(qualifier.getSimilar()));
+    		PrincipleQualifier fusedQualifier = new PrincipleQualifier(first.getPrincipleClazz(), similarList);
+    		fusedQualifier.setDescribe(fusedDescribe);
+    		
+    		log.debug("跨请求合并{}个[{}]查询为一次[{}]查询", members.size(), first.getDescribe(), fusedDescribe);
+    		List fusedRows = orEmpty(dao.subCollection(fusedQualifier));
+    		for (Map.Entry<PrincipleQualifier<?>, CompletableFuture<List<? extends Principle<?>>>> member : members.entrySet()) {
+    			member.getValue().complete(orEmpty(dao.splitFused(member.getKey(), fusedRows)));
+    		}
+    	} catch (Exception e) {
+    		// 与单元查询一致：异常时仅记录日志，各调用方得到空结果
+    		log.error("跨请求合并查询执行异常，已设置空结果", e);
+    		members.values().forEach(future -> future.complete(new PrincipleFallback<>()));
+    	}
+    }
+    
+    
+    private static <T> List<T> orEmpty(List<T> list) {
+    	return null == list ? new ArrayList<>() : list;
+    }
+    
+    // 两个截止时间中较晚者（任一为空即不限）
+    private static Deadline laterOf(Deadline a, Deadline b) {
+    	if (null == a || null == b) {
+    		return null;
+    	}
+    	return a.remainingMillis() >= b.remainingMillis() ? a : b;
+    }
+    
+    
+    /**
+     * 收集中的批次：仅在收集表的compute内修改，移出收集表后只读
+     */
+    private static final class Batch {
+    	private final Map<PrincipleQualifier<?>, CompletableFuture<List<? extends Principle<?>>>> members = new LinkedHashMap<>();
+    	// 成员 -> 截止时间（可为空，表示不限）
+    	private final Map<PrincipleQualifier<?>, Deadline> deadlines = new HashMap<>();
+    }
+}
@@ -2,6 +2,7 @@ package xyz.zhiwei.cognitivedesign.dao.accessimpl.read;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
@@ -10,9 +11,14 @@ import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.AdaptiveLimiter;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.DaoBeanCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.EntityCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.ResultCache;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleSourceLane;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.QualifiersLane;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
+import xyz.zhiwei.cognitivedesign.service.ReadScope;
 
 
 /**
@@ -22,49 +28,79 @@ public class ReadAccess {
     private static final Logger log = LoggerFactory.getLogger(ReadAccess.class);
 
     
-    private Executor daoScheduleExecutor;
     private ReadLane readLane;
     
     
     
-    public ReadAccess(DaoBeanCache daoBeanCache,Executor daoScheduleExecutor,Executor daoReadExecutor) {
-    	this.daoScheduleExecutor=daoScheduleExecutor;
-    	this.readLane=new ReadLane(daoBeanCache, daoReadExecutor);
+    public ReadAccess(DaoBeanCache daoBeanCache,EntityCache entityCache,ResultCache resultCache,Executor daoScheduleExecutor,Executor daoReadExecutor) {
+    	this.readLane=new ReadLane(daoBeanCache, entityCache, resultCache, daoScheduleExecutor, daoReadExecutor);
     }
 
     
     
+    /**
+     * 各Dao读隔舱的当前状态（用于监控指标）
+     * @return 本原类 -> 状态快照
+     */
+    public Map<Class<?>, AdaptiveLimiter.Snapshot> getReadLimits() {
+    	return readLane.getReadLimits();
+    }
+    
+    
     /**
      * 读取指定数据集
      * 根据查询泳道列表，返回各泳道的查询结果集。
      * @param qualifiersLaneList
+     * @param deadline 截止时间，可为空
+     * @return
+     */
+    public List<PrincipleSourceLane> query(List<QualifiersLane> qualifiersLaneList, Deadline deadline){
+    	return queryAsync(qualifiersLaneList, deadline).join();
+    }
+    
+    
+    /**
+     * 异步读取指定数据集
+     * 各泳道并行，单个泳道异常时该泳道兜底为空结果，返回的Future不会异常完成。
+     * 各查询单元的超时取静态单元超时与截止时间剩余时间的较小者，已截止时不再发起查询。
+     * @param qualifiersLaneList
+     * @param deadline 截止时间，可为空
+     * @return
+     */
+    public CompletableFuture<List<PrincipleSourceLane>> queryAsync(List<QualifiersLane> qualifiersLaneList, Deadline deadline){
+    	return queryAsync(qualifiersLaneList, deadline, null);
+    }
+    
+    
+    /**
+     * 在读取作用域内异步读取指定数据集
+     * 作用域内已查询过（或正在查询）的限定符复用其结果
+     * @param qualifiersLaneList
+     * @param deadline 截止时间，可为空
+     * @param scope 读取作用域，可为空
      * @return
      */
-    public List<PrincipleSourceLane> query(List<QualifiersLane> qualifiersLaneList){
+    public CompletableFuture<List<PrincipleSourceLane>> queryAsync(List<QualifiersLane> qualifiersLaneList, Deadline deadline, ReadScope scope){
 		if(null ==qualifiersLaneList || qualifiersLaneList.isEmpty()) {
 	        log.info("查询泳道列表为空");
-			return new ArrayList<>();
+			return CompletableFuture.completedFuture(new ArrayList<>());
 		}
 
+		// 同一次调用内各泳道共享单飞表，相同限定符只查询一次
+		SingleFlight singleFlight = new SingleFlight(scope);
         List<CompletableFuture<PrincipleSourceLane>> futures = IntStream
                 .range(0, qualifiersLaneList.size())
-                .mapToObj(laneIndex -> CompletableFuture.supplyAsync(
-                        () -> this.readLane.queryLane(qualifiersLaneList.get(laneIndex), laneIndex),
-                        this.daoScheduleExecutor))
+                .mapToObj(laneIndex -> this.readLane.queryLaneAsync(qualifiersLaneList.get(laneIndex), laneIndex, singleFlight, deadline)
+                		.exceptionally(e -> {
+                            log.error("第{}号泳道查询执行异常", laneIndex, e);
+                            return new PrincipleSourceLane();
+                		}))
                 .collect(Collectors.toList());
     	
-    	List<PrincipleSourceLane> principleSourceLaneList= IntStream.range(0, futures.size())
-    			.mapToObj(i -> {
-                    try {
-                        return futures.get(i).get();
-                    } catch (Exception e) {
-                        log.error("第{}号泳道查询执行异常", i, e);
-                        return new PrincipleSourceLane();
-                    }
-                })
-    			.collect(Collectors.toList());
-    	
-    	return principleSourceLaneList;
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+        		.thenApply(v -> futures.stream()
+        				.map(CompletableFuture::join)
+        				.collect(Collectors.toList()));
     }
     
 
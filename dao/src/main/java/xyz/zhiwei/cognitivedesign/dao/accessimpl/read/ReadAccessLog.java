@@ -10,6 +10,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import xyz.zhiwei.cognitivedesign.morphism.Principle;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleSource;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleStream;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifiers;
 
@@ -110,6 +111,11 @@ public class ReadAccessLog {
             if (principleList == null) {
                 continue;
             }
+            // 流式结果只能遍历一次，且isEmpty/size/get会整体读入内存：不打印行
+            if (principleList instanceof PrincipleStream) {
+                logBuffer.append(String.format("%n streaming"));
+                continue;
+            }
             // 处理当前分组为空的情况
             if (principleList.isEmpty()) {
                 continue;
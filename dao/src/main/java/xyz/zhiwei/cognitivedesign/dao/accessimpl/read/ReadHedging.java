@@ -0,0 +1,184 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl.read;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.CustomReadHedging;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleFallback;
+
+/**
+ * 对冲读取
+ * 单元超过该Dao近期耗时分位数仍未完成时，再发起一次相同查询，先完成者胜出，另一方被撤销
+ * （撤销只能阻止尚未开始的查询，已在执行的查询会自然结束，其结果被丢弃）。
+ * 对冲数受预算约束；耗时样本不足时不对冲。
+ */
+class ReadHedging {
+    private static final Logger log = LoggerFactory.getLogger(ReadHedging.class);
+    
+    // 开始对冲前至少需要的耗时样本数
+    private static final int MIN_SAMPLES = 100;
+    // 耗时样本窗口
+    private static final int WINDOW = 1024;
+    // 每记录若干样本重新排序一次分位数快照
+    private static final int RESORT_INTERVAL = 64;
+    // 预算令牌：一次对冲消耗的令牌数，及可累积的上限（允许少量突发）
+    private static final long TOKENS_PER_HEDGE = 1000;
+    private static final long MAX_TOKENS = 10 * TOKENS_PER_HEDGE;
+    
+    private final Executor daoScheduleExecutor;
+    // 本原类 -> 对冲状态
+    private final Map<Class<?>, HedgeState> states = new ConcurrentHashMap<>();
+    
+    
+    ReadHedging(Executor daoScheduleExecutor) {
+    	this.daoScheduleExecutor = daoScheduleExecutor;
+    }
+    
+    
+    /**
+     * 记录单元执行耗时（排队时间不计入）
+     * @param <T>
+     * @param principleClazz
+     * @param unit
+     * @return
+     */
+    <T> Supplier<T> timed(Class<?> principleClazz, Supplier<T> unit) {
+    	HedgeState state = stateOf(principleClazz);
+    	return () -> {
+    		long startNanos = System.nanoTime();
+    		try {
+    			return unit.get();
+    		} finally {
+    			state.record(System.nanoTime() - startNanos);
+    		}
+    	};
+    }
+    
+    
+    /**
+     * 为已发起的主查询安排对冲
+     * @param <T>
+     * @param principleClazz
+     * @param hedging Dao的对冲配置
+     * @param primary 主查询
+     * @param hedgeLauncher 发起对冲查询
+     * @return 先成功完成者的结果
+     */
+    <T> CompletableFuture<T> hedge(Class<?> principleClazz, CustomReadHedging hedging, CompletableFuture<T> primary,
+    		Supplier<CompletableFuture<T>> hedgeLauncher) {
+    	HedgeState state = stateOf(principleClazz);
+    	state.earn(hedging.getHedgeBudget());
+    	long delayMillis = state.percentileMillis(hedging.getHedgePercentile());
+    	if (delayMillis < 0) {
+    		return primary;
+    	}
+    	
+    	CompletableFuture<T> winner = new CompletableFuture<>();
+    	// 尚未结束的查询数，全部异常结束时才以异常结束
+    	AtomicInteger outstanding = new AtomicInteger(1);
+    	deliver(primary, winner, outstanding);
+    	winner.whenComplete((result, e) -> primary.cancel(false));
+    	
+    	CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS, daoScheduleExecutor).execute(() -> {
+    		if (winner.isDone() || !state.trySpend()) {
+    			return;
+    		}
+    		outstanding.incrementAndGet();
+    		if (winner.isDone()) {
+    			return;
+    		}
+    		log.debug("[{}]查询超过{}ms未完成，发起对冲查询", principleClazz.getSimpleName(), delayMillis);
+    		CompletableFuture<T> hedged = hedgeLauncher.get();
+    		deliver(hedged, winner, outstanding);
+    		winner.whenComplete((result, e) -> hedged.cancel(false));
+    	});
+    	return winner;
+    }
+    
+    
+    /**
+     * 成功完成者直接胜出；失败（异常结束或查询单元返回兜底结果）仅在所有已发起的查询都失败时传出
+     * 最后一个失败的查询决定传出的是异常还是兜底结果
+     */
+    private static <T> void deliver(CompletableFuture<T> source, CompletableFuture<T> winner, AtomicInteger outstanding) {
+    	source.whenComplete((result, e) -> {
+    		if (null == e && !(result instanceof PrincipleFallback)) {
+    			winner.complete(result);
+    		} else if (outstanding.decrementAndGet() == 0) {
+    			if (null == e) {
+    				winner.complete(result);
+    			} else {
+    				winner.completeExceptionally(e);
+    			}
+    		}
+    	});
+    }
+    
+    private HedgeState stateOf(Class<?> principleClazz) {
+    	return states.computeIfAbsent(principleClazz, k -> new HedgeState());
+    }
+    
+    
+    /**
+     * 单个Dao的耗时分布与对冲预算
+     */
+    private static final class HedgeState {
+    	private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+    	private final AtomicLong sampleCount = new AtomicLong();
+    	private volatile long[] sorted = new long[0];
+    	private final AtomicLong tokens = new AtomicLong();
+    	
+    	void record(long latencyNanos) {
+    		long count = sampleCount.getAndIncrement();
+    		samples.set((int) (count % WINDOW), latencyNanos);
+    		if ((count + 1) % RESORT_INTERVAL == 0) {
+    			int size = (int) Math.min(count + 1, WINDOW);
+    			long[] snapshot = new long[size];
+    			for (int i = 0; i < size; i++) {
+    				snapshot[i] = samples.get(i);
+    			}
+    			Arrays.sort(snapshot);
+    			sorted = snapshot;
+    		}
+    	}
+    	
+    	/**
+    	 * @return 样本不足时为-1
+    	 */
+    	long percentileMillis(double percentile) {
+    		long[] snapshot = sorted;
+    		if (snapshot.length < MIN_SAMPLES) {
+    			return -1;
+    		}
+    		int index = (int) Math.ceil(Math.min(1.0, Math.max(0.0, percentile)) * snapshot.length) - 1;
+    		return Math.max(1L, TimeUnit.NANOSECONDS.toMillis(snapshot[Math.max(0, index)]));
+    	}
+    	
+    	void earn(double budget) {
+    		long earned = Math.round(Math.max(0.0, budget) * TOKENS_PER_HEDGE);
+    		tokens.accumulateAndGet(earned, (current, add) -> Math.min(MAX_TOKENS, current + add));
+    	}
+    	
+    	boolean trySpend() {
+    		long current;
+    		do {
+    			current = tokens.get();
+    			if (current < TOKENS_PER_HEDGE) {
+    				return false;
+    			}
+    		} while (!tokens.compareAndSet(current, current - TOKENS_PER_HEDGE));
+    		return true;
+    	}
+    }
+}
@@ -1,28 +1,48 @@
 package xyz.zhiwei.cognitivedesign.dao.accessimpl.read;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import xyz.zhiwei.cognitivedesign.dao.Dao;
+import xyz.zhiwei.cognitivedesign.dao.FusibleDao;
+import xyz.zhiwei.cognitivedesign.dao.IdentityDao;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.AdaptiveLimiter;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.ConsistencyContext;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.CustomReadBatching;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.CustomReadHedging;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.CustomReadThreadPool;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.DaoBeanCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.EntityCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.ResultCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.DeadlineContext;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.TimeOutConfig;
 import xyz.zhiwei.cognitivedesign.morphism.Principle;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleFallback;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleSource;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleSourceLane;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleStream;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.DependentQualifiers;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifiers;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.QualifiersLane;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
 
 
 /**
@@ -34,12 +54,40 @@ public class ReadLane {
 
 
     private DaoBeanCache daoBeanCache;
+    private EntityCache entityCache;
+    private ResultCache resultCache;
+    private Executor daoScheduleExecutor;
     private Executor daoReadExecutor;
+    private BatchFusion batchFusion;
+    private MicroBatchLoader microBatchLoader = new MicroBatchLoader();
+    private ReadHedging readHedging;
+    //各Dao的读隔舱：本原类 -> 自适应并发限制
+    private final Map<Class<?>, AdaptiveLimiter> readLimiters = new ConcurrentHashMap<>();
+    //依赖分析模式：(shapeKey, 泳道序号, 批次数) -> 各批次实际读取的前序批次
+    private final Map<List<Object>, int[][]> laneShapeCache = new ConcurrentHashMap<>();
     
     
-    public ReadLane(DaoBeanCache daoBeanCache,Executor daoReadExecutor) {
+    public ReadLane(DaoBeanCache daoBeanCache,EntityCache entityCache,ResultCache resultCache,Executor daoScheduleExecutor,Executor daoReadExecutor) {
     	this.daoBeanCache=daoBeanCache;
+    	this.entityCache=entityCache;
+    	this.resultCache=resultCache;
+    	this.daoScheduleExecutor=daoScheduleExecutor;
     	this.daoReadExecutor=daoReadExecutor;
+    	this.batchFusion=new BatchFusion(daoBeanCache);
+    	this.readHedging=new ReadHedging(daoScheduleExecutor);
+    	daoBeanCache.forEach((principleClazz, dao) -> readLimiters.put(principleClazz,
+    			AdaptiveLimiter.forDao(principleClazz.getSimpleName(), dao)));
+    }
+    
+    
+    /**
+     * 各Dao读隔舱的当前状态（用于监控指标）
+     * @return 本原类 -> 状态快照
+     */
+    public Map<Class<?>, AdaptiveLimiter.Snapshot> getReadLimits() {
+    	Map<Class<?>, AdaptiveLimiter.Snapshot> snapshots = new LinkedHashMap<>();
+    	readLimiters.forEach((principleClazz, limiter) -> snapshots.put(principleClazz, limiter.snapshot()));
+    	return snapshots;
     }
 
     
@@ -49,32 +97,214 @@ public class ReadLane {
 	 */
     
     /**
-     * 读取一个泳道的数据
-     * 一个泳道分为若干批次
+     * 异步读取一个泳道的数据
+     * 一个泳道分为若干批次，批次按依赖关系构成DAG：
+     * 默认批次依赖前面的全部批次（即逐批串行）；DependentQualifiers声明的批次在其依赖完成后立即执行。
+     * 批次函数在调度线程池上执行，查询单元在读线程池上执行，全程无线程阻塞等待。
      * @param qualifiersLane
      * @param laneIndex 泳道序号
+     * @param singleFlight 本次查询调用的单飞表
+     * @param deadline 本次查询调用的截止时间，可为空
      * @return 
      */
-    public PrincipleSourceLane queryLane(QualifiersLane qualifiersLane, int laneIndex){
+    public CompletableFuture<PrincipleSourceLane> queryLaneAsync(QualifiersLane qualifiersLane, int laneIndex, SingleFlight singleFlight, Deadline deadline){
 
-    	PrincipleSourceLane relatedCollectionList=new PrincipleSourceLane();
 		if(null ==qualifiersLane || qualifiersLane.isEmpty()) {
-			return relatedCollectionList;
+			return CompletableFuture.completedFuture(new PrincipleSourceLane());
 		}
 
         log.info("============= 第{}号泳道 查询开始 =============", laneIndex);
+        if (qualifiersLane.isDependencyAnalysis()) {
+        	return queryAnalyzedLaneAsync(qualifiersLane, laneIndex, singleFlight, deadline)
+        			.whenComplete((sourceList, e) -> log.info("============= 第{}号泳道 查询结束 =============", laneIndex));
+        }
         
+        List<CompletableFuture<PrincipleSource>> batchFutures = new ArrayList<>(qualifiersLane.size());
 		for (int i = 0; i < qualifiersLane.size(); i++) {
+			int batchIndex = i;
 		    Function<List<PrincipleSource>, PrincipleQualifiers> qualifierFunction = qualifiersLane.get(i);
-			PrincipleQualifiers qualifierGroup=qualifierFunction.apply(relatedCollectionList);
-			ReadAccessLog.qualifiers(laneIndex, i, qualifierGroup);
-			PrincipleSource relatedCollection=queryBatch(qualifierGroup);
-			ReadAccessLog.source(laneIndex, i, relatedCollection);
-			relatedCollectionList.add(relatedCollection);
+		    int[] dependsOn;
+		    try {
+		    	dependsOn = dependenciesOf(qualifierFunction, batchIndex);
+		    } catch (IllegalArgumentException e) {
+		    	batchFutures.add(CompletableFuture.failedFuture(e));
+		    	continue;
+		    }
+		    
+		    List<CompletableFuture<PrincipleSource>> inputs = Arrays.stream(dependsOn).mapToObj(batchFutures::get).toList();
+		    batchFutures.add(CompletableFuture.allOf(inputs.toArray(CompletableFuture[]::new)).thenComposeAsync(v -> {
+				PrincipleQualifiers qualifierGroup=qualifierFunction.apply(inputView(inputs, dependsOn, batchIndex));
+				ReadAccessLog.qualifiers(laneIndex, batchIndex, qualifierGroup);
+				return queryBatchAsync(qualifierGroup, singleFlight, deadline).thenApply(relatedCollection -> {
+					ReadAccessLog.source(laneIndex, batchIndex, relatedCollection);
+					return relatedCollection;
+				});
+		    }, this.daoScheduleExecutor));
 		}
 		
-        log.info("============= 第{}号泳道 查询结束 =============", laneIndex);
-		return relatedCollectionList;
+		return CompletableFuture.allOf(batchFutures.toArray(CompletableFuture[]::new))
+				.thenApply(v -> {
+					PrincipleSourceLane relatedCollectionList=new PrincipleSourceLane();
+					batchFutures.forEach(future -> relatedCollectionList.add(future.join()));
+					return relatedCollectionList;
+				})
+				.whenComplete((sourceList, e) -> log.info("============= 第{}号泳道 查询结束 =============", laneIndex));
+    }
+    
+    
+    /**
+     * 依赖分析模式下读取一个泳道
+     * 有缓存的依赖形态时，各批次等待其上次实际读取的批次完成后执行；否则立即尝试执行。
+     * 批次函数读取到未完成的批次时，待该批次完成后重新执行，因此缓存形态不完整时结果依然正确。
+     * @param qualifiersLane
+     * @param laneIndex
+     * @return
+     */
+    private CompletableFuture<PrincipleSourceLane> queryAnalyzedLaneAsync(QualifiersLane qualifiersLane, int laneIndex, SingleFlight singleFlight, Deadline deadline) {
+    	int size = qualifiersLane.size();
+    	List<Object> shapeKey = null == qualifiersLane.getShapeKey() ? null : List.of(qualifiersLane.getShapeKey(), laneIndex, size);
+    	int[][] cachedShape = null == shapeKey ? null : laneShapeCache.get(shapeKey);
+    	
+    	AtomicReferenceArray<PrincipleSource> completed = new AtomicReferenceArray<>(size);
+    	List<CompletableFuture<PrincipleSource>> batchFutures = new ArrayList<>(size);
+    	for (int i = 0; i < size; i++) {
+    		batchFutures.add(new CompletableFuture<>());
+    	}
+    	int[][] observedShape = new int[size][];
+    	
+    	for (int i = 0; i < size; i++) {
+    		int batchIndex = i;
+		    Function<List<PrincipleSource>, PrincipleQualifiers> qualifierFunction = qualifiersLane.get(i);
+		    int[] waitFor;
+		    if (null != cachedShape) {
+		    	waitFor = cachedShape[i];
+		    } else if (qualifierFunction instanceof DependentQualifiers) {
+			    try {
+			    	waitFor = dependenciesOf(qualifierFunction, batchIndex);
+			    } catch (IllegalArgumentException e) {
+			    	batchFutures.get(batchIndex).completeExceptionally(e);
+			    	continue;
+			    }
+		    } else {
+		    	waitFor = new int[0];
+		    }
+		    
+		    CompletableFuture.allOf(Arrays.stream(waitFor).mapToObj(batchFutures::get).toArray(CompletableFuture[]::new))
+		    	.whenCompleteAsync((v, e) -> {
+		    		if (e != null) {
+		    			batchFutures.get(batchIndex).completeExceptionally(e);
+		    		} else {
+		    			attemptBatch(qualifierFunction, laneIndex, batchIndex, completed, batchFutures, observedShape, singleFlight, deadline);
+		    		}
+		    	}, this.daoScheduleExecutor);
+    	}
+    	
+		return CompletableFuture.allOf(batchFutures.toArray(CompletableFuture[]::new))
+				.thenApply(v -> {
+					if (null != shapeKey) {
+						laneShapeCache.merge(shapeKey, observedShape, ReadLane::unionShape);
+					}
+					PrincipleSourceLane relatedCollectionList=new PrincipleSourceLane();
+					batchFutures.forEach(future -> relatedCollectionList.add(future.join()));
+					return relatedCollectionList;
+				});
+    }
+    
+    
+    /**
+     * 以访问追踪视图尝试执行一个批次
+     */
+    private void attemptBatch(Function<List<PrincipleSource>, PrincipleQualifiers> qualifierFunction, int laneIndex, int batchIndex,
+    		AtomicReferenceArray<PrincipleSource> completed, List<CompletableFuture<PrincipleSource>> batchFutures, int[][] observedShape, SingleFlight singleFlight, Deadline deadline) {
+    	CompletableFuture<PrincipleSource> batchFuture = batchFutures.get(batchIndex);
+    	TrackedSourceList trackedSourceList = new TrackedSourceList(batchIndex, completed);
+    	PrincipleQualifiers qualifierGroup = null;
+    	Exception failure = null;
+    	try {
+    		qualifierGroup = qualifierFunction.apply(trackedSourceList);
+    	} catch (Exception e) {
+    		failure = e;
+    	}
+    	
+    	// 读取过未完成批次时，本次结果或异常均无效（含函数自行捕获/包装了SourceNotReadyException的情况）
+    	int notReadyIndex = trackedSourceList.getNotReadyIndex();
+    	if (notReadyIndex >= 0) {
+    		log.debug("第{}号泳道 第{}批次读取了未完成的第{}批次，待其完成后重新执行", laneIndex, batchIndex, notReadyIndex);
+    		batchFutures.get(notReadyIndex).whenCompleteAsync((source, e) -> {
+	    		if (e != null) {
+	    			batchFuture.completeExceptionally(e);
+	    		} else {
+	    			attemptBatch(qualifierFunction, laneIndex, batchIndex, completed, batchFutures, observedShape, singleFlight, deadline);
+	    		}
+    		}, this.daoScheduleExecutor);
+    		return;
+    	}
+    	
+    	if (null != failure) {
+    		batchFuture.completeExceptionally(failure);
+    		return;
+    	}
+    	
+    	observedShape[batchIndex] = trackedSourceList.getAccessed();
+		ReadAccessLog.qualifiers(laneIndex, batchIndex, qualifierGroup);
+		queryBatchAsync(qualifierGroup, singleFlight, deadline).whenComplete((relatedCollection, e) -> {
+    		if (e != null) {
+    			batchFuture.completeExceptionally(e);
+    			return;
+    		}
+			ReadAccessLog.source(laneIndex, batchIndex, relatedCollection);
+			// 先登记结果再完成Future，保证后继批次重新执行时可读到
+			completed.set(batchIndex, relatedCollection);
+			batchFuture.complete(relatedCollection);
+		});
+    }
+    
+    
+    /**
+     * 合并两次观测到的依赖形态（取并集，只会更保守）
+     */
+    private static int[][] unionShape(int[][] previous, int[][] current) {
+    	int[][] union = new int[previous.length][];
+    	for (int i = 0; i < previous.length; i++) {
+    		union[i] = IntStream.concat(Arrays.stream(previous[i]), Arrays.stream(current[i])).distinct().sorted().toArray();
+    	}
+    	return union;
+    }
+    
+    
+    /**
+     * 批次所依赖的前序批次
+     * @param qualifierFunction
+     * @param batchIndex
+     * @return
+     */
+    private int[] dependenciesOf(Function<List<PrincipleSource>, PrincipleQualifiers> qualifierFunction, int batchIndex) {
+    	if (!(qualifierFunction instanceof DependentQualifiers)) {
+    		return IntStream.range(0, batchIndex).toArray();
+    	}
+    	int[] dependsOn = ((DependentQualifiers) qualifierFunction).getDependsOn();
+    	for (int dependency : dependsOn) {
+    		if (dependency < 0 || dependency >= batchIndex) {
+    			throw new IllegalArgumentException("第" + batchIndex + "批次依赖序号越界：" + dependency);
+    		}
+    	}
+    	return dependsOn;
+    }
+    
+    
+    /**
+     * 批次函数的入参：长度为当前批次序号，依赖位置为对应批次结果，其余位置为null
+     * @param inputs 与dependsOn一一对应，均已完成
+     * @param dependsOn
+     * @param batchIndex
+     * @return
+     */
+    private List<PrincipleSource> inputView(List<CompletableFuture<PrincipleSource>> inputs, int[] dependsOn, int batchIndex) {
+    	List<PrincipleSource> sourceList = new ArrayList<>(Collections.nCopies(batchIndex, null));
+    	for (int i = 0; i < dependsOn.length; i++) {
+    		sourceList.set(dependsOn[i], inputs.get(i).join());
+    	}
+    	return sourceList;
     }
     
 
@@ -84,84 +314,165 @@ public class ReadLane {
 
 	
 	/**
-	 * 查询一个批次
-	 * @param <P>
+	 * 异步查询一个批次
 	 * @param qualifierGroup
+	 * @param singleFlight
+	 * @param deadline
 	 * @return  结果容器List必不为null，至少返回空列表[]。
 	 *   
 	 */
-    private PrincipleSource queryBatch(PrincipleQualifiers qualifierGroup) {
+    private CompletableFuture<PrincipleSource> queryBatchAsync(PrincipleQualifiers qualifierGroup, SingleFlight singleFlight, Deadline deadline) {
 
         if (null == qualifierGroup || qualifierGroup.isEmpty() || !qualifierGroup.stream().anyMatch(Objects::nonNull)) {
-            return new PrincipleSource();
+            return CompletableFuture.completedFuture(new PrincipleSource());
         }
 
-        int size = qualifierGroup.size();
-        // 原子数组存储结果（保证线程安全+索引对应）
-        AtomicReferenceArray<List<? extends Principle<?>>> resultArray = new AtomicReferenceArray<>(size);
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        // 可合并的限定符合并查询，其余按单元查询
+        long consistencyToken = singleFlight.consistencyToken();
+        List<CompletableFuture<List<? extends Principle<?>>>> futures = batchFusion.plan(qualifierGroup, singleFlight,
+        		(qualifier, index) -> queryUnitAsync(qualifier, index, deadline, consistencyToken));
 
-        for (int i = 0; i < size; i++) {
-            int index = i; 
-            PrincipleQualifier<?> qualifier = qualifierGroup.get(index);
-            
-            Executor executorToUse = this.daoReadExecutor;
-            if (qualifier != null) {
-                 Dao<?> dao = daoBeanCache.getDaoBeanByPrincipleClass(qualifier.getPrincipleClazz());
-                 if (dao instanceof CustomReadThreadPool) {
-                     Executor customExecutor = ((CustomReadThreadPool) dao).getReadExecutor();
-                     if (customExecutor != null) {
-                         executorToUse = customExecutor;
-                     }
-                 }
+        // 按索引顺序组装结果（保证与入参顺序一致）
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(v -> {
+            PrincipleSource result = new PrincipleSource();
+            for (CompletableFuture<List<? extends Principle<?>>> future : futures) {
+                // 兜底：防止极端情况（如任务未执行）结果为null
+                List<? extends Principle<?>> list = Optional.ofNullable(future.join()).orElse(new ArrayList<>());
+                result.add(list);
             }
-            
-            CompletableFuture<Void> future = CompletableFuture.supplyAsync(
-                () -> queryUnit(qualifierGroup.get(index), index), 
-                executorToUse
-            ).thenAccept(list -> resultArray.set(index, list));
-            
-            futures.add(future);
+            return result;
+        });
+    }
+
+	/*
+	 * ================================================= 单元 ===============================================================
+	 */
+
+    /**
+     * 异步提交单个查询任务
+     * 超时仅终止本任务并兜底空列表，已完成任务结果保留
+     * 超时取静态单元超时与截止时间剩余时间的较小者，已截止时不再发起查询
+     * 调用方携带一致性令牌时不经实体缓存、结果缓存与跨请求批量读取（其结果可能读自尚未复制到该写入的副本）
+     * @param qualifier 单个查询条件
+     * @param index
+     * @param deadline 可为空
+     * @param consistencyToken 调用方的一致性令牌，0表示无
+     * @return
+     */
+    private CompletableFuture<List<? extends Principle<?>>> queryUnitAsync(PrincipleQualifier<?> qualifier, int index, Deadline deadline, long consistencyToken) {
+        long timeoutMillis = DeadlineContext.unitTimeoutMillis(deadline, TIMEOUT);
+        if (timeoutMillis <= 0) {
+            log.warn("第{}个查询任务未执行：已超过截止时间，已设置空结果", index);
+            return CompletableFuture.completedFuture(new PrincipleFallback<>());
+        }
+        
+        Executor executorToUse = this.daoReadExecutor;
+        Dao<?> dao = null;
+        if (qualifier != null) {
+             dao = daoBeanCache.getDaoBeanByPrincipleClass(qualifier.getPrincipleClazz());
+             if (dao instanceof CustomReadThreadPool) {
+                 Executor customExecutor = ((CustomReadThreadPool) dao).getReadExecutor();
+                 if (customExecutor != null) {
+                     executorToUse = customExecutor;
+                 }
+             }
         }
 
-        // 等待所有任务完成（含超时控制）
-        try {
-            // 超时仅终止未完成任务，已完成任务结果保留
-            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(TIMEOUT, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            // 超时/中断时：仅取消未完成任务，已完成任务结果保留
-            log.warn("查询任务超时/被中断，取消未完成任务", e);
-            for (int i = 0; i < futures.size(); i++) {
-                CompletableFuture<Void> future = futures.get(i);
-                // 仅取消未完成的任务，并为其设置空结果
-                if (!future.isDone()) {
-                    future.cancel(true);
-                    resultArray.set(i, new ArrayList<>()); // 超时/中断任务兜底空列表
-                }
+        // 实体缓存：主键全部命中时直接返回，不再调度查询单元
+        boolean shared = consistencyToken <= 0;
+        boolean cached = shared && entityCache.covers(qualifier, dao);
+        if (cached) {
+            List<? extends Principle<?>> hit = entityCache.peek(qualifier);
+            if (null != hit) {
+                return CompletableFuture.completedFuture(hit);
+            }
+        } else if (shared && resultCache.covers(qualifier, dao)) {
+            // 结果缓存：未过期且未被选中提前刷新时直接返回
+            cached = true;
+            List<? extends Principle<?>> hit = resultCache.peek(qualifier);
+            if (null != hit) {
+                return CompletableFuture.completedFuture(hit);
             }
         }
 
-        // 按索引顺序组装结果（保证与入参顺序一致）
-        PrincipleSource result = new PrincipleSource();
-        for (int i = 0; i < size; i++) {
-            // 兜底：防止极端情况（如任务未执行）数组值为null
-            List<? extends Principle<?>> list = Optional.ofNullable(resultArray.get(i)).orElse(new ArrayList<>());
-            result.add(list);
+        CompletableFuture<List<? extends Principle<?>>> future;
+        String fusedDescribe;
+        // 经Dao的隔舱执行：超过其自适应并发上限时排队，排队已满时立即拒绝（兜底空结果）
+        AdaptiveLimiter limiter = null == qualifier ? null : readLimiters.get(qualifier.getPrincipleClazz());
+        if (shared && !cached && dao instanceof CustomReadBatching batching && MicroBatchLoader.enabled(batching)
+        		&& null != (fusedDescribe = batchFusion.fusedDescribeOf(qualifier))) {
+            // 跨请求批量读取（合并查询同样占用隔舱许可）：结果为共享Future，复制后再挂超时，避免超时影响其它调用方
+            future = microBatchLoader.load(qualifier, fusedDescribe, (FusibleDao<?>) dao, batching, deadline, limiter, executorToUse).copy();
+        } else {
+            Dao<?> unitDao = dao;
+            Supplier<List<? extends Principle<?>>> unit = () -> queryUnit(qualifier, unitDao, index, deadline, consistencyToken);
+            boolean hedged = dao instanceof CustomReadHedging && !qualifier.isStreaming();
+            if (hedged) {
+            	unit = readHedging.timed(qualifier.getPrincipleClazz(), unit);
+            }
+            Supplier<List<? extends Principle<?>>> primaryUnit = unit;
+            CompletableFuture<List<? extends Principle<?>>> primary = null == limiter
+            		? CompletableFuture.supplyAsync(unit, executorToUse)
+            		: qualifier.isStreaming()
+            		// 流式结果持有游标，许可在流关闭时才释放
+            		? limiter.submitHolding(release -> holdUntilClosed(primaryUnit.get(), release), executorToUse)
+            		: limiter.submit(unit, executorToUse);
+            if (hedged) {
+            	// 对冲查询同样占用隔舱许可，但不排队（排队会抵消对冲的意义）：没有空闲许可时放弃对冲
+            	CustomReadHedging hedging = (CustomReadHedging) dao;
+            	Dao<?> hedgeDao = Optional.<Dao<?>>ofNullable(hedging.getHedgeDao()).orElse(dao);
+            	Executor hedgeExecutor = executorToUse;
+            	Supplier<List<? extends Principle<?>>> hedgeUnit = () -> queryUnit(qualifier, hedgeDao, index, deadline, consistencyToken);
+            	future = readHedging.hedge(qualifier.getPrincipleClazz(), hedging, primary, () -> null == limiter
+            			? CompletableFuture.supplyAsync(hedgeUnit, hedgeExecutor)
+            			: limiter.trySubmit(hedgeUnit, hedgeExecutor));
+            } else {
+            	future = primary;
+            }
         }
-
-        return result;
+        // 结果经result交付：超时后才到达的流式结果无人消费，需关闭以释放连接
+        CompletableFuture<List<? extends Principle<?>>> result = new CompletableFuture<>();
+        future.whenComplete((list, e) -> {
+        	boolean delivered = null == e ? result.complete(list) : result.completeExceptionally(e);
+        	if (!delivered && list instanceof PrincipleStream<?> principleStream) {
+        		principleStream.close();
+        	}
+        });
+        // 超时后撤销仍在排队的单元
+        result.whenComplete((list, e) -> {
+        	if (null != e) {
+        		future.cancel(false);
+        	}
+        });
+        return result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).exceptionally(e -> {
+            log.warn("第{}个查询任务超时/被中断，已设置空结果", index, e);
+            return new PrincipleFallback<>(); // 超时/中断任务兜底空列表
+        });
     }
 
-	/*
-	 * ================================================= 单元 ===============================================================
-	 */
+    /**
+     * 流式结果在关闭时释放隔舱许可，其它结果立即释放
+     */
+    private static List<? extends Principle<?>> holdUntilClosed(List<? extends Principle<?>> list, Runnable release) {
+    	if (list instanceof PrincipleStream<?> principleStream) {
+    		principleStream.onClose(release);
+    	} else {
+    		release.run();
+    	}
+    	return list;
+    }
 
     /**
      * 执行单个查询任务
+     * 截止时间绑定在Dao调用的作用域内，供Dao实现下推超时；一致性令牌同样绑定，供Dao实现在写后固定期内走主库
      * @param qualifier 单个查询条件
+     * @param dao 执行查询的Dao（本原类的Dao或其对冲Dao）
+     * @param deadline 可为空
+     * @param consistencyToken 0表示无（此时可经缓存读取）
      * @return 查询结果列表，发生异常时返回空列表
      */
-    private <P extends Principle<?>> List<P> queryUnit(PrincipleQualifier<P> qualifier, int index) {
+    @SuppressWarnings("unchecked")
+    private <P extends Principle<?>> List<P> queryUnit(PrincipleQualifier<P> qualifier, Dao<?> dao, int index, Deadline deadline, long consistencyToken) {
         try {
             List<P> list;
             
@@ -169,8 +480,15 @@ public class ReadLane {
             if (null == qualifier) {
                 list = new ArrayList<>();
             } else {
-                Dao<P> relatedDao = daoBeanCache.getDaoBeanByPrincipleClass(qualifier.getPrincipleClazz());
-                list = relatedDao.subCollection(qualifier);
+                Dao<P> relatedDao = (Dao<P>) dao;
+                boolean shared = consistencyToken <= 0;
+                list = DeadlineContext.callWith(deadline, () -> ConsistencyContext.callWith(consistencyToken, () -> qualifier.isStreaming()
+                		? new PrincipleStream<>(relatedDao.streamSubCollection(qualifier))
+                		: shared && entityCache.covers(qualifier, relatedDao)
+                		? entityCache.read(qualifier, (IdentityDao<P>) relatedDao)
+                		: shared && resultCache.covers(qualifier, relatedDao)
+                		? resultCache.load(qualifier, relatedDao, () -> relatedDao.subCollection(qualifier))
+                		: relatedDao.subCollection(qualifier)));
                 // DAO返回null时兜底为空列表
                 list = Optional.ofNullable(list).orElse(new ArrayList<>());
             }
@@ -178,7 +496,7 @@ public class ReadLane {
         } catch (Exception e) {
             // 核心：异常时仅记录日志，返回空结果，不影响其他任务
             log.error("第{}个查询任务执行异常，已设置空结果", index, e);
-            return new ArrayList<>(); // 异常兜底空列表
+            return new PrincipleFallback<>(); // 异常兜底空列表
         }
     }
     
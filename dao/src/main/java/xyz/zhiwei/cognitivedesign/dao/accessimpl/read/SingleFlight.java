@@ -0,0 +1,64 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl.read;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleFallback;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+import xyz.zhiwei.cognitivedesign.service.ReadScope;
+
+/**
+ * 单飞表
+ * 一次查询调用内，规范形式相同的限定符只执行一次Dao查询，各泳道共享同一个结果列表（调用方不应修改结果列表）。
+ * 有读取作用域时改由作用域记忆，共享范围扩展到作用域内的多次查询调用。
+ * 流式限定符的结果只能消费一次，不参与共享；失败或兜底（PrincipleFallback）的结果也不共享。
+ */
+class SingleFlight {
+	
+	private final Map<PrincipleQualifier<?>, CompletableFuture<List<? extends Principle<?>>>> inFlight = new ConcurrentHashMap<>();
+	private final ReadScope scope;
+	
+	
+	SingleFlight(ReadScope scope) {
+		this.scope = scope;
+	}
+	
+	
+	/**
+	 * 已有相同限定符在执行时复用其结果，否则以loader发起查询
+	 * @param qualifier
+	 * @param loader
+	 * @return
+	 */
+	CompletableFuture<List<? extends Principle<?>>> computeIfAbsent(PrincipleQualifier<?> qualifier,
+			Supplier<CompletableFuture<List<? extends Principle<?>>>> loader) {
+		if (qualifier.isStreaming()) {
+			return loader.get();
+		}
+		if (null != scope) {
+			return scope.computeIfAbsent(qualifier, loader);
+		}
+		CompletableFuture<List<? extends Principle<?>>> future = inFlight.computeIfAbsent(qualifier, k -> loader.get());
+		// 失败或兜底的结果不共享，后续相同的限定符重新查询
+		future.whenComplete((list, e) -> {
+			if (null != e || list instanceof PrincipleFallback) {
+				inFlight.remove(qualifier, future);
+			}
+		});
+		return future;
+	}
+	
+	
+	/**
+	 * 调用方的一致性令牌（取自读取作用域）
+	 * @return 无作用域或作用域内未发生存储时为0
+	 */
+	long consistencyToken() {
+		return null == scope ? 0L : scope.getConsistencyToken();
+	}
+	
+}
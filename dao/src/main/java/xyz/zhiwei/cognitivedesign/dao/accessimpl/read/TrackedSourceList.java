@@ -0,0 +1,79 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl.read;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleSource;
+
+/**
+ * 访问追踪视图
+ * 依赖分析模式下传给批次函数的前序结果列表：记录函数实际读取了哪些位置；
+ * 读取尚未完成的批次时抛出SourceNotReadyException，由调度方在该批次完成后重新执行函数。
+ * 仅在单次函数调用内使用，非线程安全。
+ */
+class TrackedSourceList extends AbstractList<PrincipleSource> {
+
+	private final int size;
+	private final AtomicReferenceArray<PrincipleSource> completed;
+	private final BitSet accessed = new BitSet();
+	private int notReadyIndex = -1;
+	
+	
+	/**
+	 * @param size 当前批次序号
+	 * @param completed 各批次已完成的结果，未完成为null
+	 */
+	TrackedSourceList(int size, AtomicReferenceArray<PrincipleSource> completed) {
+		this.size = size;
+		this.completed = completed;
+	}
+	
+
+	@Override
+	public PrincipleSource get(int index) {
+		Objects.checkIndex(index, size);
+		accessed.set(index);
+		PrincipleSource source = completed.get(index);
+		if (null == source) {
+			if (notReadyIndex < 0) {
+				notReadyIndex = index;
+			}
+			throw new SourceNotReadyException(index);
+		}
+		return source;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	
+	/**
+	 * 函数执行期间首个读取到的未完成批次，-1表示全部就绪
+	 * （函数自行吞掉异常时，仍以此判定本次执行无效）
+	 */
+	int getNotReadyIndex() {
+		return notReadyIndex;
+	}
+	
+	/**
+	 * 实际读取过的批次序号
+	 */
+	int[] getAccessed() {
+		return accessed.stream().toArray();
+	}
+	
+	/**
+	 * 读取了尚未完成的批次
+	 */
+	static class SourceNotReadyException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		
+		SourceNotReadyException(int index) {
+			super("第" + index + "批次尚未完成", null, false, false);
+		}
+	}
+}
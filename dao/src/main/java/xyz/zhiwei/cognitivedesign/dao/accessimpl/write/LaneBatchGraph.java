@@ -0,0 +1,90 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl.write;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.DependentImage;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.ImageLane;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImage;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ImageResponse;
+
+/**
+ * 泳道批次调度
+ * 按泳道声明的批次依赖调度：每个批次在其依赖的批次全部完成后执行，互不依赖的批次并发执行，
+ * 泳道耗时为最长依赖链的耗时。批次未包装为DependentImage时依赖此前全部批次，与依次执行一致。
+ */
+public class LaneBatchGraph {
+	
+	private LaneBatchGraph() {}
+	
+	
+	/**
+	 * 调度一个泳道的全部批次
+	 * 某一批次失败时，依赖它的批次不再执行，泳道以该异常失败；不依赖它的批次照常执行
+	 * 依赖声明越界的批次同样作为失败的批次，不在本方法中同步抛出
+	 * @param lane
+	 * @param batchRunner (批次序号, 此前批次的响应（未依赖的位置为null）) -> 本批次的响应
+	 * @param scheduleExecutor 批次函数执行的调度线程池
+	 * @return 按批次序号排列的响应
+	 */
+	public static CompletableFuture<List<ImageResponse>> run(ImageLane lane,
+			BiFunction<Integer, List<ImageResponse>, CompletableFuture<ImageResponse>> batchRunner, Executor scheduleExecutor) {
+		
+		List<CompletableFuture<ImageResponse>> batches = new ArrayList<>(lane.size());
+		for (int i = 0; i < lane.size(); i++) {
+			int batchIndex = i;
+			// 在本线程取出所依赖批次的Future，批次函数执行时不再读取batches
+			int[] dependsOn;
+			try {
+				dependsOn = dependenciesOf(lane.get(batchIndex), batchIndex);
+			} catch (IllegalArgumentException e) {
+				batches.add(CompletableFuture.failedFuture(e));
+				continue;
+			}
+			Map<Integer, CompletableFuture<ImageResponse>> upstream = new LinkedHashMap<>();
+			for (int index : dependsOn) {
+				upstream.put(index, batches.get(index));
+			}
+			
+			batches.add(CompletableFuture.allOf(upstream.values().toArray(CompletableFuture[]::new)).thenComposeAsync(v -> {
+				List<ImageResponse> responses = new ArrayList<>(Collections.nCopies(batchIndex, null));
+				upstream.forEach((index, future) -> responses.set(index, future.join()));
+				return batchRunner.apply(batchIndex, responses);
+			}, scheduleExecutor));
+		}
+		
+		return CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).thenApply(v -> {
+			List<ImageResponse> responses = new ArrayList<>(batches.size());
+			batches.forEach(batch -> responses.add(batch.join()));
+			return responses;
+		});
+	}
+	
+	
+	/**
+	 * 批次所依赖的前序批次
+	 * @param imageFunction
+	 * @param batchIndex
+	 * @return
+	 */
+	private static int[] dependenciesOf(Function<List<ImageResponse>, PrincipleImage> imageFunction, int batchIndex) {
+		if (!(imageFunction instanceof DependentImage)) {
+			return IntStream.range(0, batchIndex).toArray();
+		}
+		int[] dependsOn = ((DependentImage) imageFunction).getDependsOn();
+		for (int dependency : dependsOn) {
+			if (dependency < 0 || dependency >= batchIndex) {
+				throw new IllegalArgumentException("第" + batchIndex + "批次依赖序号越界：" + dependency);
+			}
+		}
+		return dependsOn;
+	}
+}
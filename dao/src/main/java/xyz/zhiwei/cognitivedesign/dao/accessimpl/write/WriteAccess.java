@@ -10,12 +10,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.transaction.jta.JtaTransactionManager;
 
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.DaoBeanCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.EntityCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.ResultCache;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.write.normalgroup.WriteNormalGroup;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.write.txgroup.WriteTxGroup;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.ImageLaneGroup;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.ImagePackage;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ResponseLaneGroup;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ResponsePackage;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
 
 
 /**
@@ -25,19 +28,15 @@ public class WriteAccess{
     private static final Logger log = LoggerFactory.getLogger(WriteAccess.class);
     
     
-    private Executor daoScheduleExecutor;
-
     private WriteNormalGroup writeNormalGroup;
     private WriteTxGroup writeTxGroup;
     
     
-    public WriteAccess(DaoBeanCache daoBeanCache,JtaTransactionManager jtaTransactionManager,
+    public WriteAccess(DaoBeanCache daoBeanCache,EntityCache entityCache,ResultCache resultCache,JtaTransactionManager jtaTransactionManager,
     		Executor daoScheduleExecutor,Executor daoWriteExecutor) {
     	
-    	this.daoScheduleExecutor=daoScheduleExecutor;
-
-    	this.writeNormalGroup=new WriteNormalGroup(daoBeanCache,daoScheduleExecutor,daoWriteExecutor);
-    	this.writeTxGroup=new WriteTxGroup(daoBeanCache,jtaTransactionManager,daoScheduleExecutor,daoWriteExecutor);
+    	this.writeNormalGroup=new WriteNormalGroup(daoBeanCache,entityCache,resultCache,daoScheduleExecutor,daoWriteExecutor);
+    	this.writeTxGroup=new WriteTxGroup(daoBeanCache,entityCache,resultCache,jtaTransactionManager,daoScheduleExecutor,daoWriteExecutor);
     }
     
     
@@ -47,9 +46,24 @@ public class WriteAccess{
 	 * 存储相关数据集
 	 * 
 	 * @param imagePackage
+	 * @param deadline 截止时间，可为空
 	 * @return
 	 */
-	public ResponsePackage save(ImagePackage imagePackage) {
+	public ResponsePackage save(ImagePackage imagePackage, Deadline deadline) {
+		return saveAsync(imagePackage, deadline).join();
+	}
+	
+	
+	/**
+	 * 异步存储相关数据集
+	 * 非事务组与各事务组并行，单个组异常时该组兜底为空响应，返回的Future不会异常完成。
+	 * 各存储单元的超时取静态单元超时与截止时间剩余时间的较小者，事务组的JTA超时取剩余时间。
+	 * 响应携带一致性令牌（各组结束的时刻），超时后仍在执行的写入不受其保证。
+	 * @param imagePackage
+	 * @param deadline 截止时间，可为空
+	 * @return
+	 */
+	public CompletableFuture<ResponsePackage> saveAsync(ImagePackage imagePackage, Deadline deadline) {
     	
 		ImageLaneGroup noTransactionGroup=imagePackage.getNoTransactionGroup();
 		CompletableFuture<ResponseLaneGroup> noTransactionGroupFuture;
@@ -57,9 +71,7 @@ public class WriteAccess{
 	        log.info("非事务组为空");
 			noTransactionGroupFuture = CompletableFuture.completedFuture(new ResponseLaneGroup());
 		}else {
-			noTransactionGroupFuture = CompletableFuture.supplyAsync(() -> 
-				writeNormalGroup.save(noTransactionGroup), daoScheduleExecutor
-			).exceptionally(e -> {
+			noTransactionGroupFuture = writeNormalGroup.saveAsync(noTransactionGroup,deadline).exceptionally(e -> {
 				log.error("save noTransactionGroup error", e);
 				return new ResponseLaneGroup();
 			});
@@ -76,9 +88,7 @@ public class WriteAccess{
 			        log.info("事务组{}为空",txGroupIndex);
 					future = CompletableFuture.completedFuture(new ResponseLaneGroup());
 				}else {
-					future = CompletableFuture.supplyAsync(() -> 
-						writeTxGroup.save(transactionGroup,txGroupIndex), daoScheduleExecutor
-					).exceptionally(e -> {
+					future = writeTxGroup.saveAsync(transactionGroup,txGroupIndex,deadline).exceptionally(e -> {
 						log.error("save transactionGroup error, txGroupIndex={}", txGroupIndex, e);
 						return new ResponseLaneGroup();
 					});
@@ -90,34 +100,18 @@ public class WriteAccess{
 		}
 
 		
-		
-		
-		
-		//非事务组结果收集
-		ResponseLaneGroup noTransactionGroupResp;
-		try {
-			noTransactionGroupResp = noTransactionGroupFuture.get();
-		} catch (Exception e) {
-			log.error("save noTransactionGroup error", e);
-			noTransactionGroupResp = new ResponseLaneGroup();
-		}
-
-		//事务组结果收集
-		List<ResponseLaneGroup> transactionGroupListResp = new ArrayList<>();
-		for (int i = 0; i < txFutures.size(); i++) {
-			CompletableFuture<ResponseLaneGroup> future = txFutures.get(i);
-			int txGroupIndex = i;
-			ResponseLaneGroup resp;
-			try {
-				resp = future.get();
-			} catch (Exception e) {
-				log.error("save transactionGroup error, txGroupIndex={}", txGroupIndex, e);
-				resp = new ResponseLaneGroup();
+		//非事务组与事务组结果收集
+		List<CompletableFuture<ResponseLaneGroup>> allFutures = new ArrayList<>(txFutures);
+		allFutures.add(noTransactionGroupFuture);
+		return CompletableFuture.allOf(allFutures.toArray(CompletableFuture[]::new)).thenApply(v -> {
+			List<ResponseLaneGroup> transactionGroupListResp = new ArrayList<>();
+			for (CompletableFuture<ResponseLaneGroup> future : txFutures) {
+				transactionGroupListResp.add(future.join());
 			}
-			transactionGroupListResp.add(resp);
-		}
-		
-    	return new ResponsePackage(noTransactionGroupResp,transactionGroupListResp);
+	    	ResponsePackage responsePackage = new ResponsePackage(noTransactionGroupFuture.join(),transactionGroupListResp);
+	    	responsePackage.setConsistencyToken(System.currentTimeMillis());
+	    	return responsePackage;
+		});
     }
     
     
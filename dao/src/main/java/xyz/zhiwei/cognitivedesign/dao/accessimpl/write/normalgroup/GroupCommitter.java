@@ -0,0 +1,188 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl.write.normalgroup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import xyz.zhiwei.cognitivedesign.dao.GroupCommitDao;
+import xyz.zhiwei.cognitivedesign.dao.GroupRollbackException;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.CustomWriteBatching;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.DeadlineContext;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImagery;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
+
+/**
+ * 跨请求组提交
+ * 同一本原类、同一写入描述的本原块在收集窗口内排队，窗口结束或达到单次上限时合并为一次批处理、一次提交，
+ * 各调用方得到自己那一块的影响行数；整组提交失败且确认已回滚（GroupRollbackException）时逐块单独重试，只有自身失败的块以异常完成，
+ * 未确认回滚时整组以异常完成（不重试，避免重复写入）。
+ * 提交前剔除已截止的块，提交在剩余各块中最早的截止时间内执行。
+ */
+class GroupCommitter {
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitter.class);
+
+    // (本原类, 写入描述) -> 收集中的批次
+    private final Map<List<Object>, Batch> pendingBatches = new ConcurrentHashMap<>();
+    
+    
+    /**
+     * 是否对该Dao启用
+     */
+    static boolean enabled(CustomWriteBatching batching) {
+    	return batching.getCommitWindowMillis() > 0 && batching.getMaxCommitUnits() > 1;
+    }
+    
+    
+    /**
+     * 加入收集中的批次
+     * @param principleClazz
+     * @param principleImagery 写入描述须可组提交
+     * @param deadline 本块的截止时间，可为空
+     * @param dao
+     * @param executor 提交执行的线程池
+     * @return 本块的影响行数
+     */
+    CompletableFuture<Long> save(Class<?> principleClazz, PrincipleImagery<?> principleImagery, Deadline deadline,
+    		GroupCommitDao<?> dao, CustomWriteBatching batching, Executor executor) {
+    	
+    	List<Object> key = List.of(principleClazz, principleImagery.getDescribe());
+    	int maxUnits = batching.getMaxCommitUnits();
+    	long window = batching.getCommitWindowMillis();
+    	
+    	CompletableFuture<Long> result = new CompletableFuture<>();
+    	Batch[] full = new Batch[1];
+    	pendingBatches.compute(key, (k, batch) -> {
+    		if (null == batch) {
+    			Batch fresh = new Batch();
+    			CompletableFuture.delayedExecutor(window, TimeUnit.MILLISECONDS, executor)
+    				.execute(() -> flush(k, fresh, dao));
+    			batch = fresh;
+    		}
+    		batch.imageries.add(principleImagery);
+    		batch.deadlines.add(deadline);
+    		batch.futures.add(result);
+    		if (batch.imageries.size() >= maxUnits) {
+    			full[0] = batch;
+    			return null;
+    		}
+    		return batch;
+    	});
+    	
+    	if (null != full[0]) {
+    		// 已从收集表移除，窗口到期时的flush不会重复提交
+    		Batch batch = full[0];
+    		executor.execute(() -> dispatch(batch, dao));
+    	}
+    	return result;
+    }
+    
+    
+    /**
+     * 窗口到期：批次仍在收集表中时提交
+     */
+    private void flush(List<Object> key, Batch batch, GroupCommitDao<?> dao) {
+    	if (pendingBatches.remove(key, batch)) {
+    		dispatch(batch, dao);
+    	}
+    }
+    
+    
+    /**
+     * 提交并按块分发影响行数；整组失败且已回滚时逐块单独重试
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void dispatch(Batch collected, GroupCommitDao dao) {
+    	Batch batch = unexpired(collected);
+    	if (batch.imageries.isEmpty()) {
+    		return;
+    	}
+    	Deadline deadline = batch.deadlines.stream().filter(Objects::nonNull)
+    			.min(Comparator.comparingLong(Deadline::remainingMillis)).orElse(null);
+    	List<Long> counts;
+    	try {
+    		counts = DeadlineContext.callWith(deadline, () -> dao.saveGroup((List) batch.imageries));
+    	} catch (Exception e) {
+    		if (batch.imageries.size() == 1 || !isRolledBack(e)) {
+    			log.error("跨请求组提交执行异常", e);
+    			batch.futures.forEach(future -> future.completeExceptionally(e));
+    			return;
+    		}
+    		log.warn("跨请求组提交{}个[{}]本原块失败，已回滚，逐块重试", batch.imageries.size(), batch.imageries.get(0).getDescribe(), e);
+    		for (int i = 0; i < batch.imageries.size(); i++) {
+    			try {
+    				List<?> unit = List.of(batch.imageries.get(i));
+    				List<Long> unitCounts = DeadlineContext.callWith(batch.deadlines.get(i), () -> dao.saveGroup(unit));
+    				batch.futures.get(i).complete(null == unitCounts || unitCounts.isEmpty() ? null : unitCounts.get(0));
+    			} catch (Exception unitE) {
+    				log.error("跨请求组提交单块重试异常", unitE);
+    				batch.futures.get(i).completeExceptionally(unitE);
+    			}
+    		}
+    		return;
+    	}
+    	// 已提交：行数不对应时不重试，避免重复写入
+    	if (null == counts || counts.size() != batch.futures.size()) {
+    		IllegalStateException e = new IllegalStateException("组提交返回的影响行数与本原块数不一致");
+    		log.error("跨请求组提交执行异常", e);
+    		batch.futures.forEach(future -> future.completeExceptionally(e));
+    		return;
+    	}
+    	log.debug("跨请求组提交{}个[{}]本原块", batch.imageries.size(), batch.imageries.get(0).getDescribe());
+    	for (int i = 0; i < counts.size(); i++) {
+    		batch.futures.get(i).complete(counts.get(i));
+    	}
+    }
+    
+    
+    /**
+     * 异常链中是否有整组回滚的确认
+     */
+    private static boolean isRolledBack(Throwable e) {
+    	for (Throwable cause = e; null != cause; cause = cause.getCause()) {
+    		if (cause instanceof GroupRollbackException) {
+    			return true;
+    		}
+    	}
+    	return false;
+    }
+    
+    
+    /**
+     * 剔除已截止的块（以超时异常完成），其余块组成新的批次
+     */
+    private static Batch unexpired(Batch batch) {
+    	Batch alive = new Batch();
+    	for (int i = 0; i < batch.imageries.size(); i++) {
+    		Deadline deadline = batch.deadlines.get(i);
+    		if (null != deadline && deadline.isExpired()) {
+    			log.error("跨请求组提交：本原块提交前已截止，不再写入");
+    			batch.futures.get(i).completeExceptionally(new TimeoutException("deadline exceeded before group commit"));
+    			continue;
+    		}
+    		alive.imageries.add(batch.imageries.get(i));
+    		alive.deadlines.add(deadline);
+    		alive.futures.add(batch.futures.get(i));
+    	}
+    	return alive;
+    }
+    
+    
+    /**
+     * 收集中的批次：仅在收集表的compute内修改，移出收集表后只读
+     */
+    private static final class Batch {
+    	private final List<PrincipleImagery<?>> imageries = new ArrayList<>();
+    	private final List<Deadline> deadlines = new ArrayList<>();
+    	private final List<CompletableFuture<Long>> futures = new ArrayList<>();
+    }
+}
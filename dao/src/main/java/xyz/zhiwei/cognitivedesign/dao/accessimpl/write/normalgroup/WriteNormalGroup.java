@@ -9,10 +9,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.DaoBeanCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.EntityCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.ResultCache;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.ImageLane;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.ImageLaneGroup;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ResponseLane;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ResponseLaneGroup;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
 
 
 /**
@@ -21,52 +24,43 @@ import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ResponseLane
 public class WriteNormalGroup {
     private static final Logger log = LoggerFactory.getLogger(WriteNormalGroup.class);
 
-    private Executor daoScheduleExecutor;
     private WriteNormalLane writeNormalLane;
     
     
     
-    public WriteNormalGroup(DaoBeanCache daoBeanCache,Executor daoScheduleExecutor,Executor daoWriteExecutor) {
-    	this.daoScheduleExecutor=daoScheduleExecutor;
-    	this.writeNormalLane=new WriteNormalLane(daoBeanCache,daoWriteExecutor);
+    public WriteNormalGroup(DaoBeanCache daoBeanCache,EntityCache entityCache,ResultCache resultCache,Executor daoScheduleExecutor,Executor daoWriteExecutor) {
+    	this.writeNormalLane=new WriteNormalLane(daoBeanCache,entityCache,resultCache,daoScheduleExecutor,daoWriteExecutor);
     }
     
     
 	/**
-	 * 存储一个组
+	 * 异步存储一个组
+	 * 各泳道并行，单个泳道异常时该泳道兜底为空响应
 	 * @param noTransactionGroup
+	 * @param deadline 可为空
 	 * @return
 	 */
-	public ResponseLaneGroup save(ImageLaneGroup noTransactionGroup) {
+	public CompletableFuture<ResponseLaneGroup> saveAsync(ImageLaneGroup noTransactionGroup, Deadline deadline) {
 		List<CompletableFuture<ResponseLane>> futures = new ArrayList<>();
 		
 		for (int laneIndex = 0; laneIndex < noTransactionGroup.size(); laneIndex++) {
 			final int currentLaneIndex = laneIndex;
 			ImageLane imageLane = noTransactionGroup.get(laneIndex);
-			CompletableFuture<ResponseLane> future = CompletableFuture.supplyAsync(() -> 
-					writeNormalLane.saveLane(imageLane, currentLaneIndex), daoScheduleExecutor
-				).exceptionally(e -> {
+			CompletableFuture<ResponseLane> future = writeNormalLane.saveLaneAsync(imageLane, currentLaneIndex, deadline)
+				.exceptionally(e -> {
 					log.error("save noTransactionGroup lane error, laneIndex={}", currentLaneIndex, e);
 					return new ResponseLane(new ArrayList<>());
 				});
 			futures.add(future);
 		}
 		
-		ResponseLaneGroup responseLaneGroup=new ResponseLaneGroup();
-		for (int i = 0; i < futures.size(); i++) {
-			CompletableFuture<ResponseLane> future = futures.get(i);
-			int laneIndex = i;
-			ResponseLane responseLane;
-			try {
-				responseLane = future.get();
-			} catch (Exception e) {
-				log.error("save noTransactionGroup lane error, laneIndex={}", laneIndex, e);
-				responseLane = new ResponseLane(new ArrayList<>());
+		return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(v -> {
+			ResponseLaneGroup responseLaneGroup=new ResponseLaneGroup();
+			for (CompletableFuture<ResponseLane> future : futures) {
+				responseLaneGroup.add(future.join());
 			}
-			responseLaneGroup.add(responseLane);
-		}
-		
-		return responseLaneGroup;
+			return responseLaneGroup;
+		});
 	}
 
 }
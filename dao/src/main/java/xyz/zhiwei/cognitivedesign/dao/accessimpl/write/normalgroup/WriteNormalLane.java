@@ -12,9 +12,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import xyz.zhiwei.cognitivedesign.dao.Dao;
+import xyz.zhiwei.cognitivedesign.dao.GroupCommitDao;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.CustomWriteBatching;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.CustomWriteThreadPool;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.DaoBeanCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.EntityCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.ResultCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.DeadlineContext;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.TimeOutConfig;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.write.LaneBatchGraph;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.write.WriteAccessLog;
 import xyz.zhiwei.cognitivedesign.morphism.Principle;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.ImageLane;
@@ -22,6 +28,7 @@ import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleIm
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImagery;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ImageResponse;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ResponseLane;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
 
 /**
  * 非事务泳道
@@ -33,10 +40,17 @@ public class WriteNormalLane {
     private final Long EMPTY_VALUE=0L;
 
     private DaoBeanCache daoBeanCache;
+    private EntityCache entityCache;
+    private ResultCache resultCache;
+    private Executor daoScheduleExecutor;
     private Executor daoWriteExecutor;
+    private GroupCommitter groupCommitter = new GroupCommitter();
 	
-    public WriteNormalLane(DaoBeanCache daoBeanCache,Executor daoWriteExecutor) {
+    public WriteNormalLane(DaoBeanCache daoBeanCache,EntityCache entityCache,ResultCache resultCache,Executor daoScheduleExecutor,Executor daoWriteExecutor) {
     	this.daoBeanCache=daoBeanCache;
+    	this.entityCache=entityCache;
+    	this.resultCache=resultCache;
+    	this.daoScheduleExecutor=daoScheduleExecutor;
     	this.daoWriteExecutor=daoWriteExecutor;
     }
     
@@ -46,29 +60,31 @@ public class WriteNormalLane {
 	 */
 
 	/**
-	 * 存储一个泳道
+	 * 异步存储一个泳道
+	 * 批次按泳道声明的依赖调度（未声明时依次执行），批次函数在调度线程池上执行
 	 * @param noTransactionLane
 	 * @param laneIndex 泳道序号
+	 * @param deadline 可为空
 	 * @return
 	 */
-	public ResponseLane saveLane(ImageLane noTransactionLane, int laneIndex) {
+	public CompletableFuture<ResponseLane> saveLaneAsync(ImageLane noTransactionLane, int laneIndex, Deadline deadline) {
 		
-		List<ImageResponse> respList=new ArrayList<>();
-
         log.info("============= 非事务组 第{}号泳道 写入开始 =============", laneIndex);
 		
-		for (int i = 0; i < noTransactionLane.size(); i++) {
-			Function<List<ImageResponse>,PrincipleImage> batchFun = noTransactionLane.get(i);
-			PrincipleImage principleImage=batchFun.apply(respList);
-			WriteAccessLog.image(-1,laneIndex, i, principleImage);
-			ImageResponse imageResponse=saveBatch(principleImage);
-			WriteAccessLog.resp(-1,laneIndex, i, imageResponse);
-			respList.add(imageResponse);
-		}
-
-        log.info("============= 非事务组 第{}号泳道 写入结束 =============", laneIndex);
-		
-		return new ResponseLane(respList);
+        CompletableFuture<List<ImageResponse>> laneFuture=LaneBatchGraph.run(noTransactionLane, (batchIndex, list) -> {
+			Function<List<ImageResponse>,PrincipleImage> batchFun = noTransactionLane.get(batchIndex);
+			PrincipleImage principleImage=batchFun.apply(list);
+			WriteAccessLog.image(-1,laneIndex, batchIndex, principleImage);
+			return saveBatchAsync(principleImage, deadline).thenApply(imageResponse -> {
+				WriteAccessLog.resp(-1,laneIndex, batchIndex, imageResponse);
+				return imageResponse;
+			});
+		}, this.daoScheduleExecutor);
+
+		return laneFuture.thenApply(list -> {
+	        log.info("============= 非事务组 第{}号泳道 写入结束 =============", laneIndex);
+			return new ResponseLane(list);
+		});
 	}
     
 	
@@ -82,22 +98,30 @@ public class WriteNormalLane {
 	
 	
 	/**
-	 * 存储一个批次
+	 * 异步存储一个批次
+	 * 单元失败/超时记为FAIL_VALUE，不影响同批次其它单元；已截止时整批不再执行
+	 * Dao开启组提交时，可组提交的单元与其它请求的同类写入一起提交：提交前已截止的单元不再写入，
+	 * 提交在组内最早的截止时间内执行（提交开始后超时只影响本单元的响应，不撤回写入）
 	 * @param principleImage
+	 * @param deadline 可为空
 	 * @return
 	 */
-	private ImageResponse saveBatch(PrincipleImage principleImage) {
-		ImageResponse imageResponse=new ImageResponse(); 
-
+	private CompletableFuture<ImageResponse> saveBatchAsync(PrincipleImage principleImage, Deadline deadline) {
         if (isEmpty(principleImage)) {
-            return imageResponse;
+            return CompletableFuture.completedFuture(new ImageResponse());
         }
+        long timeoutMillis = DeadlineContext.unitTimeoutMillis(deadline, TIMEOUT);
 		
 		List<CompletableFuture<Long>> futures = new ArrayList<>();
 		for (int i = 0; i < principleImage.size(); i++) {
 			final PrincipleImagery<?> principleImagery = principleImage.get(i);
 			if (isEmpty(principleImagery)) {
-				imageResponse.put(i, EMPTY_VALUE);
+				futures.add(CompletableFuture.completedFuture(EMPTY_VALUE));
+				continue;
+			}
+			if (timeoutMillis <= 0) {
+				log.error("saveBatch unit skipped: deadline exceeded");
+				futures.add(CompletableFuture.completedFuture(FAIL_VALUE));
 				continue;
 			}
 			
@@ -110,33 +134,38 @@ public class WriteNormalLane {
 				}
 			}
 			
-			CompletableFuture<Long> future = CompletableFuture.supplyAsync(() -> {
-				try {
-					return saveUnit(principleImagery);
-				} catch (Exception e) {
-					log.error("saveBatch unit error", e);
-					return FAIL_VALUE;
-				}
-			}, executorToUse);
-			futures.add(future);
-		}
-		
-		for (int i = 0; i < futures.size(); i++) {
-			CompletableFuture<Long> future = futures.get(i);
-			Long count;
-			try {
-				count = future.get(TIMEOUT, TimeUnit.SECONDS);
-			} catch (Exception e) {
-				log.error("saveBatch unit error/timeout", e);
-				count = FAIL_VALUE;
-			}
-			if (count == null) {
-				count = EMPTY_VALUE;
+			CompletableFuture<Long> future;
+			if (dao instanceof GroupCommitDao<?> groupCommitDao && dao instanceof CustomWriteBatching batching
+					&& GroupCommitter.enabled(batching) && groupCommitDao.isGroupCommittable(principleImagery.getDescribe())) {
+				future = groupCommitter.save(daoBeanCache.getClassFromList(principleImagery), principleImagery, deadline, groupCommitDao, batching, executorToUse)
+						.whenComplete((count, e) -> invalidate(principleImagery));
+			} else {
+				future = CompletableFuture.supplyAsync(() -> {
+					try {
+						return DeadlineContext.callWith(deadline, () -> saveUnit(principleImagery));
+					} catch (Exception e) {
+						log.error("saveBatch unit error", e);
+						return FAIL_VALUE;
+					}
+				}, executorToUse);
 			}
-			imageResponse.put(i, count);
+			futures.add(future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).exceptionally(e -> {
+				log.error("saveBatch unit error/timeout", e);
+				return FAIL_VALUE;
+			}));
 		}
 		
-		return imageResponse;
+		return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(v -> {
+			ImageResponse imageResponse=new ImageResponse(); 
+			for (int i = 0; i < futures.size(); i++) {
+				Long count = futures.get(i).join();
+				if (count == null) {
+					count = EMPTY_VALUE;
+				}
+				imageResponse.put(i, count);
+			}
+			return imageResponse;
+		});
 	}
 	
 	
@@ -155,14 +184,21 @@ public class WriteNormalLane {
 	/**
 	 * 存储子列表
 	 * （借助入参套出泛型）
+	 * 写入结束后（无论成败）使实体缓存中的对应本原、结果缓存中该本原类的结果失效
 	 * @param <P>
 	 * @param principleImagery
 	 * @return
 	 */
 	private <P extends Principle<?>> Long saveUnit(PrincipleImagery<P> principleImagery) {
 
-		Dao<P> relatedDao=daoBeanCache.getDaoBeanByPrincipleClass(daoBeanCache.getClassFromList(principleImagery));
-		Long relateCount=relatedDao.save(principleImagery);
+		Class<P> principleClazz=daoBeanCache.getClassFromList(principleImagery);
+		Dao<P> relatedDao=daoBeanCache.getDaoBeanByPrincipleClass(principleClazz);
+		Long relateCount;
+		try {
+			relateCount=relatedDao.save(principleImagery);
+		} finally {
+			invalidate(principleImagery);
+		}
 		if(null==relateCount) {
 			return EMPTY_VALUE;
 		}
@@ -170,6 +206,18 @@ public class WriteNormalLane {
 	}
 	
 	
+	/**
+	 * 使实体缓存中的对应本原、结果缓存中该本原类的结果失效
+	 * @param <P>
+	 * @param principleImagery
+	 */
+	private <P extends Principle<?>> void invalidate(PrincipleImagery<P> principleImagery) {
+		Class<P> principleClazz=daoBeanCache.getClassFromList(principleImagery);
+		entityCache.invalidate(principleClazz, principleImagery);
+		resultCache.invalidate(principleClazz);
+	}
+	
+	
 	/**
 	 * @param list
 	 * @return
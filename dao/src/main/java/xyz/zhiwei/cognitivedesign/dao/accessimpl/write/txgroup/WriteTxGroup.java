@@ -6,6 +6,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 
@@ -15,20 +16,25 @@ import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.jta.JtaTransactionManager;
 import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import jakarta.transaction.Transaction;
 import jakarta.transaction.TransactionManager;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.DaoBeanCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.EntityCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.ResultCache;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.ImageLane;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.ImageLaneGroup;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ResponseLane;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ResponseLaneGroup;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
 
 /**
  * 事务组处理
  */
 public class WriteTxGroup {
     private static final Logger log = LoggerFactory.getLogger(WriteTxGroup.class);
+    private static final String TX_NAME="GroupTransactionDefinition";
 
     private JtaTransactionManager jtaTransactionManager;
     private Executor daoScheduleExecutor;
@@ -36,7 +42,7 @@ public class WriteTxGroup {
     private WriteTxLane writeTxLane;
 	
     
-    public WriteTxGroup(DaoBeanCache daoBeanCache, JtaTransactionManager jtaTransactionManager,
+    public WriteTxGroup(DaoBeanCache daoBeanCache, EntityCache entityCache, ResultCache resultCache, JtaTransactionManager jtaTransactionManager,
     		Executor daoScheduleExecutor, Executor daoWriteExecutor) {
     	if (jtaTransactionManager.getTransactionManager() == null) {
     		throw new IllegalArgumentException("JtaTransactionManager must have a valid jakarta.transaction.TransactionManager");
@@ -44,106 +50,174 @@ public class WriteTxGroup {
     	
     	this.jtaTransactionManager=jtaTransactionManager;
     	this.daoScheduleExecutor=daoScheduleExecutor;
-    	this.writeTxLane=new WriteTxLane(daoBeanCache, daoWriteExecutor);
+    	this.writeTxLane=new WriteTxLane(daoBeanCache, entityCache, resultCache, daoScheduleExecutor, daoWriteExecutor);
     }
     
     /**
-     * 存储一个组
+     * 异步存储一个组
      *  整个组是一个独立的全局事务
      *  包含若干泳道
+     *  开启/挂起、恢复/提交（或回滚）均作为续延在调度线程池上执行，等待泳道期间不占用线程
      *  @param transactionGroup
      *  @param txGroupIndex
+     *  @param deadline 可为空；JTA事务超时取其剩余时间
      *  @return
      */
-	public ResponseLaneGroup save(ImageLaneGroup transactionGroup,int txGroupIndex) {
+	public CompletableFuture<ResponseLaneGroup> saveAsync(ImageLaneGroup transactionGroup,int txGroupIndex,Deadline deadline) {
 
-        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
-        def.setName("GroupTransactionDefinition");
-        def.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
-        TransactionStatus status = jtaTransactionManager.getTransaction(def);
-        
         // 跨线程事务相关资源
-        TransactionManager jtaTm = jtaTransactionManager.getTransactionManager();
         CrossThreadSyncCollector syncCollector = new CrossThreadSyncCollector();
         // 收集所有泳道的连接，在 Group 提交后再关闭
         Queue<Connection> connectionCollector = new ConcurrentLinkedQueue<>();
+
+        return CompletableFuture.supplyAsync(() -> begin(deadline), daoScheduleExecutor)
+        		.thenCompose(groupTx -> lanesOrFailure(transactionGroup, txGroupIndex, groupTx.jtaTransaction(), syncCollector, connectionCollector, deadline)
+        				.handleAsync((responseGroup, ex) -> complete(groupTx, responseGroup, ex, syncCollector), daoScheduleExecutor))
+        		.whenComplete((responseGroup, ex) -> {
+                	syncCollector.clear();
+                	// 统一关闭所有连接
+                	closeConnections(connectionCollector);
+        		});
+    }
+	
+	
+	/**
+	 * 1. 开启并挂起 JTA 事务
+	 * 事务同步状态是线程绑定的，而提交可能在另一线程上继续，故开启后即从当前线程解除，提交前再恢复。
+	 * 有截止时间时，事务超时取其剩余时间（已截止则不再开启）。
+	 * @param deadline 可为空
+	 * @return
+	 */
+	private GroupTransaction begin(Deadline deadline) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        def.setName(TX_NAME);
+        def.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+        if (null != deadline) {
+        	if (deadline.isExpired()) {
+        		throw new IllegalStateException("Deadline exceeded before transaction group began");
+        	}
+        	def.setTimeout(deadline.remainingSeconds());
+        }
+        TransactionStatus status = jtaTransactionManager.getTransaction(def);
         
-        Transaction jtaTransaction = null;
-        boolean isSuspended = false;
-        
+        TransactionManager jtaTm = jtaTransactionManager.getTransactionManager();
         try {
-        	// 1. 获取并挂起 JTA 事务
-			jtaTransaction = jtaTm.suspend();
-			isSuspended = true;
-
+        	Transaction jtaTransaction = jtaTm.suspend();
+        	TransactionSynchronizationManager.clear();
+        	return new GroupTransaction(status, jtaTransaction);
+        } catch (Exception ex) {
+        	log.error("Failed to suspend transaction, rolling back", ex);
+        	try {
+        		jtaTransactionManager.rollback(status);
+        	} catch (Exception e) {
+        		log.error("Rollback failed", e);
+        	}
+        	throw new RuntimeException(ex);
+        }
+	}
+	
+	
+	/**
+	 * 泳道的Future无法构造时（同步抛出）转为失败的Future，使事务仍经complete恢复并回滚
+	 */
+	private CompletableFuture<ResponseLaneGroup> lanesOrFailure(ImageLaneGroup transactionGroup, int txGroupIndex, Transaction sharedTx,
+			CrossThreadSyncCollector syncCollector, Queue<Connection> connectionCollector, Deadline deadline) {
+		try {
+			return saveLanesAsync(transactionGroup, txGroupIndex, sharedTx, syncCollector, connectionCollector, deadline);
+		} catch (RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+	
+	
+	/**
+	 * 2. 并行执行泳道
+	 * 注意：此时 jtaTransaction 已经被挂起，可以安全地传递给子线程
+	 * 子线程将使用 Manual Enlistment 模式，不需要 Resume 事务，从而避免锁竞争
+	 */
+	private CompletableFuture<ResponseLaneGroup> saveLanesAsync(ImageLaneGroup transactionGroup, int txGroupIndex, Transaction sharedTx,
+			CrossThreadSyncCollector syncCollector, Queue<Connection> connectionCollector, Deadline deadline) {
+        List<CompletableFuture<ResponseLane>> futures = new ArrayList<>();
+        for (int i = 0; i < transactionGroup.size(); i++) {
+            final int laneIndex = i;
+            ImageLane imageLane = transactionGroup.get(laneIndex);
+            futures.add(writeTxLane.saveLaneAsync(imageLane, txGroupIndex, laneIndex, sharedTx, syncCollector, connectionCollector, deadline));
+        }
+        
+        // 3. 所有泳道完成后汇总
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(v -> {
             ResponseLaneGroup responseGroup = new ResponseLaneGroup();
-            List<CompletableFuture<ResponseLane>> futures = new ArrayList<>();
-            
-            // 2. 并行执行泳道
-            // 注意：此时 jtaTransaction 已经被挂起，可以安全地传递给子线程
-            // 子线程将使用 Manual Enlistment 模式，不需要 Resume 事务，从而避免锁竞争
-            final Transaction sharedTx = jtaTransaction;
-            
-            for (int i = 0; i < transactionGroup.size(); i++) {
-                final int laneIndex = i;
-                ImageLane imageLane = transactionGroup.get(laneIndex);
-                
-                CompletableFuture<ResponseLane> future = CompletableFuture.supplyAsync(() -> {
-                	try {
-						return writeTxLane.saveLane(imageLane, txGroupIndex, laneIndex, sharedTx, syncCollector, connectionCollector);
-					} catch (Exception e) {
-						throw new RuntimeException("Lane execution failed", e);
-					}
-                }, daoScheduleExecutor);
-                
-                futures.add(future);
-            } 
-            
-            // 3. 等待所有泳道完成
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-            
             for (CompletableFuture<ResponseLane> f : futures) {
-            	responseGroup.add(f.get());
-            }
-
-            // 4. 恢复事务并提交
-            if (isSuspended) {
-            	jtaTm.resume(jtaTransaction);
-            	isSuspended = false;
-            	
-            	// 5. 注册收集到的回调（确保在 Commit 前触发）
-            	syncCollector.registerToCurrentThread();
+            	responseGroup.add(f.join());
             }
+            return responseGroup;
+        });
+	}
+	
+	
+	/**
+	 * 4. 恢复事务并提交；任一泳道失败则恢复事务并回滚
+	 */
+	private ResponseLaneGroup complete(GroupTransaction groupTx, ResponseLaneGroup responseGroup, Throwable laneEx, CrossThreadSyncCollector syncCollector) {
+        TransactionManager jtaTm = jtaTransactionManager.getTransactionManager();
+        boolean isSuspended = true;
+        try {
+        	if (laneEx != null) {
+        		throw laneEx instanceof CompletionException && laneEx.getCause() != null ? laneEx.getCause() : laneEx;
+        	}
+        	jtaTm.resume(groupTx.jtaTransaction());
+        	isSuspended = false;
+        	restoreSynchronization();
+        	
+        	// 5. 注册收集到的回调（确保在 Commit 前触发）
+        	syncCollector.registerToCurrentThread();
 
-            jtaTransactionManager.commit(status);
+            jtaTransactionManager.commit(groupTx.status());
             return responseGroup;
             
-        } catch (Exception ex) {
+        } catch (Throwable ex) {
         	log.error("Transaction group failed, rolling back", ex);
         	// 确保回滚
         	if (isSuspended) {
         		try {
-					jtaTm.resume(jtaTransaction);
+					jtaTm.resume(groupTx.jtaTransaction());
 				} catch (Exception e) {
 					log.error("Failed to resume transaction for rollback", e);
 				}
         	}
         	
         	try {
-        		jtaTransactionManager.rollback(status);
+        		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+        			restoreSynchronization();
+        		}
+        		jtaTransactionManager.rollback(groupTx.status());
         	} catch (Exception e) {
         		log.error("Rollback failed", e);
+        	} finally {
+        		// 提交/回滚正常结束时已由事务管理器清理，此处兜底防止线程状态残留
+        		TransactionSynchronizationManager.clear();
         	}
         	
             throw new RuntimeException(ex);
-        } finally {
-        	syncCollector.clear();
-        	// 统一关闭所有连接
-        	closeConnections(connectionCollector);
         }
-		
-
-    }
+	}
+	
+	
+	/**
+	 * 在当前线程上恢复开启事务时建立的同步状态，供提交/回滚流程触发回调
+	 */
+	private void restoreSynchronization() {
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionName(TX_NAME);
+	}
+	
+	
+	/**
+	 * 已开启并挂起的组事务
+	 */
+	private record GroupTransaction(TransactionStatus status, Transaction jtaTransaction) {}
+	
     
 	/**
 	 * 清理连接
@@ -11,6 +11,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 
 import javax.sql.DataSource;
@@ -28,7 +29,11 @@ import xyz.zhiwei.cognitivedesign.dao.Dao;
 import xyz.zhiwei.cognitivedesign.dao.TransactionDao;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.CustomWriteThreadPool;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.DaoBeanCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.EntityCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.ResultCache;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.DeadlineContext;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.TimeOutConfig;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.write.LaneBatchGraph;
 import xyz.zhiwei.cognitivedesign.dao.accessimpl.write.WriteAccessLog;
 import xyz.zhiwei.cognitivedesign.morphism.Principle;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.ImageLane;
@@ -36,6 +41,7 @@ import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleIm
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImagery;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ImageResponse;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ResponseLane;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
 
 /**
  * 事务泳道
@@ -46,10 +52,16 @@ public class WriteTxLane {
     private final Long EMPTY_VALUE=0L;
 
     private DaoBeanCache daoBeanCache;
+    private EntityCache entityCache;
+    private ResultCache resultCache;
+    private Executor daoScheduleExecutor;
     private Executor daoWriteExecutor;
 	
-    public WriteTxLane(DaoBeanCache daoBeanCache,Executor daoWriteExecutor) {
+    public WriteTxLane(DaoBeanCache daoBeanCache,EntityCache entityCache,ResultCache resultCache,Executor daoScheduleExecutor,Executor daoWriteExecutor) {
     	this.daoBeanCache=daoBeanCache;
+    	this.entityCache=entityCache;
+    	this.resultCache=resultCache;
+    	this.daoScheduleExecutor=daoScheduleExecutor;
     	this.daoWriteExecutor=daoWriteExecutor;
     }
     
@@ -59,52 +71,51 @@ public class WriteTxLane {
 	 */
 
 	/**
-	 * 存储一个泳道
-	 * 一个泳道内的数据分为若干批次
+	 * 异步存储一个泳道
+	 * 一个泳道内的数据分为若干批次，按泳道声明的依赖调度（未声明时依次执行）；
+	 * 并发的批次中同一可见性键（同一连接）的写入仍串行执行
 	 * @param transactionLane
 	 * @param txGroupIndex 事务组序号
 	 * @param laneIndex 泳道序号
 	 * @param jtaTransaction 全局 JTA 事务
 	 * @param syncCollector 事务回调收集器
 	 * @param globalConnectionCollector 全局连接收集器
+	 * @param deadline 可为空
 	 * @return
 	 */
-	public ResponseLane saveLane(ImageLane transactionLane, int txGroupIndex, int laneIndex, Transaction jtaTransaction, CrossThreadSyncCollector syncCollector, Queue<Connection> globalConnectionCollector) {
+	public CompletableFuture<ResponseLane> saveLaneAsync(ImageLane transactionLane, int txGroupIndex, int laneIndex, Transaction jtaTransaction, CrossThreadSyncCollector syncCollector, Queue<Connection> globalConnectionCollector, Deadline deadline) {
 
 
 	        log.info("============= 事务组{} 第{}号泳道 写入开始 =============",txGroupIndex,laneIndex);
 			
-			List<ImageResponse> respList=new ArrayList<>();
 			// 泳道级连接缓存：Key(DataSource/Dao/String) -> Connection
 			// 必须线程安全，因为 saveBatch 内部会并行执行
 			Map<Object, Connection> laneConnectionCache = new ConcurrentHashMap<>();
+			// 泳道级连接串行链：Key -> 该连接上最后一个写入任务；并发的批次在同一连接上依次写入
+			Map<Object, CompletableFuture<Void>> laneConnectionTails = new ConcurrentHashMap<>();
 			
-			try {
-				//一个泳道内的数据分为若干批次，后一批数据依赖于前一批数据
-				for (int i = 0; i < transactionLane.size(); i++) {
-					Function<List<ImageResponse>,PrincipleImage> batchFun = transactionLane.get(i);
-					PrincipleImage principleImage=batchFun.apply(respList);
-					WriteAccessLog.image(txGroupIndex,laneIndex, i, principleImage);
-					
-					// 执行批次（内部可能并行）
-					ImageResponse imageResponse = saveBatch(principleImage, jtaTransaction, laneConnectionCache, syncCollector);
-					
-					WriteAccessLog.resp(txGroupIndex,laneIndex, i, imageResponse);
-					respList.add(imageResponse);
-				}
-			} finally {
+			//一个泳道内的数据分为若干批次，批次只等待其依赖的批次
+			CompletableFuture<List<ImageResponse>> laneFuture=LaneBatchGraph.run(transactionLane, (batchIndex, list) -> {
+				Function<List<ImageResponse>,PrincipleImage> batchFun = transactionLane.get(batchIndex);
+				PrincipleImage principleImage=batchFun.apply(list);
+				WriteAccessLog.image(txGroupIndex,laneIndex, batchIndex, principleImage);
+				
+				// 执行批次（内部可能并行）
+				return saveBatchAsync(principleImage, jtaTransaction, laneConnectionCache, laneConnectionTails, syncCollector, deadline).thenApply(imageResponse -> {
+					WriteAccessLog.resp(txGroupIndex,laneIndex, batchIndex, imageResponse);
+					return imageResponse;
+				});
+			}, this.daoScheduleExecutor);
+			
+			return laneFuture.whenComplete((list, e) -> {
 				// 泳道结束，不再立即关闭连接，而是收集到全局队列，等待事务提交后统一关闭
-				// closeLaneConnections(laneConnectionCache);
 				if (globalConnectionCollector != null) {
 					globalConnectionCollector.addAll(laneConnectionCache.values());
 				}
-			}
-			
-	        log.info("============= 事务组{}  第{}号泳道 写入结束 =============",txGroupIndex,laneIndex);
-			
-			return new ResponseLane(respList);
-			
-		
+			}).thenApply(list -> {
+		        log.info("============= 事务组{}  第{}号泳道 写入结束 =============",txGroupIndex,laneIndex);
+				return new ResponseLane(list);
+			});
 	}
     
 	
@@ -117,17 +128,26 @@ public class WriteTxLane {
 	
 	
 	/**
-	 * 存储一个批次
+	 * 异步存储一个批次
 	 * @param principleImage
 	 * @param jtaTransaction
 	 * @param laneConnectionCache
+	 * @param laneConnectionTails 各连接上最后一个写入任务（本批次的任务接在其后）
 	 * @param syncCollector
+	 * @param deadline 可为空；已截止时整批失败（事务组随之回滚）
 	 * @return
 	 */
-	private ImageResponse saveBatch(PrincipleImage principleImage, Transaction jtaTransaction, Map<Object, Connection> laneConnectionCache, CrossThreadSyncCollector syncCollector) {
+	private CompletableFuture<ImageResponse> saveBatchAsync(PrincipleImage principleImage, Transaction jtaTransaction, Map<Object, Connection> laneConnectionCache,
+			Map<Object, CompletableFuture<Void>> laneConnectionTails, CrossThreadSyncCollector syncCollector, Deadline deadline) {
 		ImageResponse resultImageResponse=new ImageResponse();
+		// 各工作线程并发写入的单元结果，批次完成后统一汇入 resultImageResponse
+		Map<Integer, Long> unitCounts = new ConcurrentHashMap<>();
 		if(isEmpty(principleImage)) {
-			return new ImageResponse();
+			return CompletableFuture.completedFuture(new ImageResponse());
+		}
+		long timeoutMillis = DeadlineContext.unitTimeoutMillis(deadline, TIMEOUT);
+		if (timeoutMillis <= 0) {
+			return CompletableFuture.failedFuture(new TimeoutException("Deadline exceeded before batch execution"));
 		}
 
 		// 1. 分组：按 TransactionVisibilityKey 分组
@@ -155,7 +175,7 @@ public class WriteTxLane {
 		List<CompletableFuture<Void>> futures = new ArrayList<>();
 
 		for (Map.Entry<Object, List<Integer>> entry : unitGroups.entrySet()) {
-			//Object key = entry.getKey();
+			Object key = entry.getKey();
 			List<Integer> indexes = entry.getValue();
 
 			// 选择执行器：优先使用自定义线程池，否则使用默认线程池
@@ -171,7 +191,8 @@ public class WriteTxLane {
 				}
 			}
 			
-			CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+			Executor groupExecutor = executorToUse;
+			Runnable groupTask = () -> {
 				// Worker Thread 逻辑
 				boolean success = false;
 				try {
@@ -187,11 +208,8 @@ public class WriteTxLane {
 						// 在执行前，尝试准备连接资源（利用 TransactionDao）
 						prepareConnectionForUnit(principleImagery, laneConnectionCache, jtaTransaction);
 						
-						Long count = saveUnit(principleImagery);
-						// 结果必须线程安全地放入 resultImageResponse
-						synchronized (resultImageResponse) {
-							resultImageResponse.put(index, count);
-						}
+						Long count = DeadlineContext.callWith(deadline, () -> saveUnit(principleImagery));
+						unitCounts.put(index, count);
 					}
 					success = true;
 				} catch (Exception e) {
@@ -235,21 +253,29 @@ public class WriteTxLane {
 						TransactionSynchronizationManager.clear();
 					}
 				}
-			}, executorToUse); // 使用线程池
+			};
+			
+			// 接在同一连接上此前的写入之后（无论其成败，失败由其所在批次报告）
+			CompletableFuture<Void> future = laneConnectionTails.compute(key, (k, tail) -> (null == tail
+					? CompletableFuture.<Void>completedFuture(null)
+					: tail.<Void>handle((v, e) -> null))
+					.thenRunAsync(groupTask, groupExecutor)); // 使用线程池
 			
 			futures.add(future);
 		}
 
-		// 3. 等待所有组完成
-		try {
-			CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
-			all.get(TIMEOUT.longValue(), TimeUnit.SECONDS);
-		} catch (Exception e) {
-			log.error("Batch execution failed", e);
-			throw new RuntimeException(e);
-		}
-
-		return resultImageResponse;
+		// 3. 所有组完成后返回（超时则整个批次失败）
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+				.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+				.whenComplete((v, e) -> {
+					if (e != null) {
+						log.error("Batch execution failed", e);
+					}
+				})
+				.thenApply(v -> {
+					resultImageResponse.putAll(unitCounts);
+					return resultImageResponse;
+				});
 	}
 	
 
@@ -305,13 +331,25 @@ public class WriteTxLane {
 	/**
 	 * 存储子列表
 	 * （借助入参套出泛型）
+	 * 注册事务回调：全局事务提交后使实体缓存中的对应本原、结果缓存中该本原类的结果失效（回调随业务回调汇入主线程）
 	 * @param <P>
 	 * @param principleImagery
 	 * @return
 	 */
 	private <P extends Principle<?>> Long saveUnit(PrincipleImagery<P> principleImagery) {
 
-		Dao<P> relatedDao=daoBeanCache.getDaoBeanByPrincipleClass(daoBeanCache.getClassFromList(principleImagery));
+		Class<P> principleClazz=daoBeanCache.getClassFromList(principleImagery);
+		Dao<P> relatedDao=daoBeanCache.getDaoBeanByPrincipleClass(principleClazz);
+		if (entityCache.caches(principleClazz) || resultCache.caches(principleClazz)) {
+			List<P> written=new ArrayList<>(principleImagery);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					entityCache.invalidate(principleClazz, written);
+					resultCache.invalidate(principleClazz);
+				}
+			});
+		}
 		Long relateCount=relatedDao.save(principleImagery);
 		if(null==relateCount) {
 			return EMPTY_VALUE;
@@ -0,0 +1,110 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleStream;
+
+/**
+ * 隔舱许可：取消、流关闭、异常时均归还许可，不泄漏
+ */
+class AdaptiveLimiterTest {
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	// 上限固定为1，便于观察许可
+	private final AdaptiveLimiter limiter = new AdaptiveLimiter("test", 1, 1, 10);
+	
+	
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	
+	@Test
+	void cancelledQueuedTaskNeverRunsAndFreesItsSlot() throws Exception {
+		CountDownLatch blocker = new CountDownLatch(1);
+		CompletableFuture<String> running = limiter.submit(() -> await(blocker, "first"), executor);
+		AtomicBoolean queuedRan = new AtomicBoolean();
+		CompletableFuture<String> queued = limiter.submit(() -> {
+			queuedRan.set(true);
+			return "queued";
+		}, executor);
+		assertEquals(1, limiter.snapshot().queued());
+		
+		queued.cancel(false);
+		blocker.countDown();
+		assertEquals("first", running.get(5, TimeUnit.SECONDS));
+		
+		assertEquals("next", limiter.submit(() -> "next", executor).get(5, TimeUnit.SECONDS));
+		assertFalse(queuedRan.get());
+		awaitInFlight(0);
+	}
+	
+	@Test
+	void holdingPermitIsReleasedWhenStreamCloses() throws Exception {
+		PrincipleStream<Item> stream = limiter.<PrincipleStream<Item>>submitHolding(
+				release -> new PrincipleStream<>(Stream.of(new Item(1L, "a"))).onClose(release), executor).get(5, TimeUnit.SECONDS);
+		assertEquals(1, limiter.snapshot().inFlight());
+		
+		assertEquals(1, stream.stream().count());
+		stream.close();
+		awaitInFlight(0);
+	}
+	
+	@Test
+	void undeliveredStreamIsClosedAndReleased() throws Exception {
+		CountDownLatch blocker = new CountDownLatch(1);
+		AtomicBoolean closed = new AtomicBoolean();
+		CompletableFuture<PrincipleStream<Item>> future = limiter.submitHolding(release -> await(blocker,
+				new PrincipleStream<>(Stream.<Item>empty().onClose(() -> closed.set(true))).onClose(release)), executor);
+		
+		future.cancel(false);
+		blocker.countDown();
+		awaitInFlight(0);
+		assertTrue(closed.get());
+	}
+	
+	@Test
+	void failedHoldingTaskReleasesPermit() throws Exception {
+		CompletableFuture<List<Item>> future = limiter.submitHolding(release -> {
+			throw new IllegalStateException("query failed");
+		}, executor);
+		
+		assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+		awaitInFlight(0);
+	}
+	
+	
+	private static <T> T await(CountDownLatch latch, T value) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return value;
+	}
+	
+	private void awaitInFlight(int expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (limiter.snapshot().inFlight() != expected && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(expected, limiter.snapshot().inFlight());
+	}
+}
@@ -0,0 +1,74 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+
+/**
+ * 实体缓存：失效后的回填走主库、并发写入时不回填、取出的是副本
+ */
+class EntityCacheTest {
+
+	private ItemDao dao;
+	private EntityCache cache;
+	
+	
+	@BeforeEach
+	void setUp() {
+		dao = new ItemDao();
+		dao.table.put(1L, "first");
+		cache = new EntityCache(dao.daoBeanCache());
+	}
+	
+	
+	@Test
+	void fillBeforeAnyInvalidationKeepsCallerBinding() {
+		cache.read(pk(1L), dao);
+		assertEquals(0, dao.lastToken);
+	}
+	
+	@Test
+	void fillAfterInvalidationIsBoundToInvalidationTime() {
+		long before = System.currentTimeMillis();
+		cache.invalidate(Item.class, List.of(new Item(1L, null)));
+		
+		cache.read(pk(1L), dao);
+		assertTrue(dao.lastToken >= before && dao.lastToken <= System.currentTimeMillis());
+	}
+	
+	@Test
+	void fillRacingAnInvalidationIsNotCached() {
+		dao.duringQuery = () -> cache.invalidate(Item.class, List.of(new Item(1L, null)));
+		assertEquals("first", cache.read(pk(1L), dao).get(0).getName());
+		
+		assertNull(cache.peek(pk(1L)));
+	}
+	
+	@Test
+	void cachedRowsAreCopiedOut() {
+		cache.read(pk(1L), dao).get(0).setName("changed by caller");
+		
+		Item first = cache.peek(pk(1L)).get(0);
+		Item second = cache.peek(pk(1L)).get(0);
+		assertEquals("first", first.getName());
+		assertNotSame(first, second);
+		
+		first.setName("changed again");
+		assertEquals("first", cache.peek(pk(1L)).get(0).getName());
+	}
+	
+	
+	private static PrincipleQualifier<Item> pk(Long id) {
+		PrincipleQualifier<Item> qualifier = new PrincipleQualifier<>(Item.class, new Item(id, null));
+		qualifier.setDescribe("pk");
+		return qualifier;
+	}
+}
@@ -0,0 +1,16 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+
+/**
+ * 测试本原
+ */
+public class Item extends Principle<Long> {
+	private static final long serialVersionUID = 1L;
+
+	public Item() {}
+	
+	public Item(Long id, String name) {
+		super(id, name);
+	}
+}
@@ -0,0 +1,77 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.support.StaticApplicationContext;
+
+import xyz.zhiwei.cognitivedesign.dao.IdentityDao;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImagery;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+
+/**
+ * 测试Dao：内存表，记录每次查询时绑定的一致性令牌
+ */
+class ItemDao implements IdentityDao<Item>, CustomEntityCache, CustomResultCache {
+
+	final Map<Long, String> table = new ConcurrentHashMap<>();
+	// 最近一次查询时绑定的一致性令牌
+	volatile long lastToken = -1;
+	// 查询时执行（模拟查询期间的并发写入）
+	volatile Runnable duringQuery = () -> {};
+	
+	
+	/**
+	 * 只含本Dao的Dao缓存
+	 */
+	DaoBeanCache daoBeanCache() {
+		StaticApplicationContext context = new StaticApplicationContext();
+		context.getBeanFactory().registerSingleton("itemDao", this);
+		context.refresh();
+		return new DaoBeanCache(context);
+	}
+	
+	
+	@Override
+	public List<Item> subCollection(PrincipleQualifier<Item> qualifier) {
+		lastToken = ConsistencyContext.current();
+		duringQuery.run();
+		List<Item> rows = new ArrayList<>();
+		table.forEach((id, name) -> rows.add(new Item(id, name)));
+		return rows;
+	}
+	
+	@Override
+	public List<Item> listByIds(List<Item> similarList) {
+		lastToken = ConsistencyContext.current();
+		duringQuery.run();
+		return similarList.stream().filter(s -> table.containsKey(s.getId())).map(s -> new Item(s.getId(), table.get(s.getId()))).toList();
+	}
+	
+	@Override
+	public Long save(PrincipleImagery<Item> principleImagery) {
+		throw new UnsupportedOperationException();
+	}
+	
+	@Override
+	public boolean isIdLookup(String describe) {
+		return "pk".equals(describe) || "pkList".equals(describe);
+	}
+	
+	@Override
+	public int getEntityCacheSize() {
+		return 16;
+	}
+	
+	@Override
+	public int getResultCacheSize() {
+		return 16;
+	}
+	
+	@Override
+	public long getResultCacheTtlMillis(String describe) {
+		return 60_000;
+	}
+}
@@ -0,0 +1,78 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+
+/**
+ * 结果缓存：失效后的加载走主库、并发写入时不回填、取出的是副本
+ */
+class ResultCacheTest {
+
+	private ItemDao dao;
+	private ResultCache cache;
+	private PrincipleQualifier<Item> qualifier;
+	
+	
+	@BeforeEach
+	void setUp() {
+		dao = new ItemDao();
+		dao.table.put(1L, "first");
+		cache = new ResultCache(dao.daoBeanCache());
+		qualifier = new PrincipleQualifier<>(Item.class, new Item(null, "first"));
+		qualifier.setDescribe("byName");
+	}
+	
+	
+	@Test
+	void loadAfterInvalidationIsBoundToInvalidationTime() {
+		load();
+		assertEquals(0, dao.lastToken);
+		
+		long before = System.currentTimeMillis();
+		cache.invalidate(Item.class);
+		load();
+		assertTrue(dao.lastToken >= before && dao.lastToken <= System.currentTimeMillis());
+	}
+	
+	@Test
+	void loadRacingAnInvalidationIsNotCached() {
+		dao.duringQuery = () -> cache.invalidate(Item.class);
+		assertEquals(1, load().size());
+		
+		assertNull(cache.peek(qualifier));
+	}
+	
+	@Test
+	void cachedResultIsCopiedOut() {
+		List<Item> loaded = load();
+		loaded.get(0).setName("changed by caller");
+		
+		List<Item> first = peek();
+		List<Item> second = peek();
+		assertEquals("first", first.get(0).getName());
+		assertNotSame(first, second);
+		assertNotSame(first.get(0), second.get(0));
+		
+		first.clear();
+		assertEquals(1, peek().size());
+	}
+	
+	
+	private List<Item> load() {
+		return cache.load(qualifier, dao, () -> dao.subCollection(qualifier));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private List<Item> peek() {
+		return (List<Item>) cache.peek(qualifier);
+	}
+}
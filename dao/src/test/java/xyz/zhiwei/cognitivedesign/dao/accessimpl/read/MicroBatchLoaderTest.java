@@ -0,0 +1,108 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl.read;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import xyz.zhiwei.cognitivedesign.dao.FusibleDao;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.CustomReadBatching;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.DeadlineContext;
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImagery;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleFallback;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
+
+/**
+ * 跨请求批量读取：合并查询在成员最早的截止时间内执行，已截止的成员不参与
+ */
+class MicroBatchLoaderTest {
+
+	private final MicroBatchLoader loader = new MicroBatchLoader();
+	private final Dao dao = new Dao();
+	
+	
+	@Test
+	void fusedQueryIsBoundToEarliestMemberDeadline() throws Exception {
+		Deadline early = Deadline.afterMillis(10_000);
+		Deadline late = Deadline.afterMillis(60_000);
+		
+		CompletableFuture<List<? extends Principle<?>>> first = loader.load(qualifier(1L), "pkList", dao, dao, late, null, Runnable::run);
+		CompletableFuture<List<? extends Principle<?>>> second = loader.load(qualifier(2L), "pkList", dao, dao, early, null, Runnable::run);
+		
+		assertEquals(1, first.get(5, TimeUnit.SECONDS).size());
+		assertEquals(1, second.get(5, TimeUnit.SECONDS).size());
+		assertSame(early, dao.boundDeadline.get());
+	}
+	
+	@Test
+	void expiredMemberIsLeftOutOfFusedQuery() throws Exception {
+		Deadline expired = Deadline.afterMillis(0);
+		Deadline alive = Deadline.afterMillis(60_000);
+		
+		CompletableFuture<List<? extends Principle<?>>> stale = loader.load(qualifier(1L), "pkList", dao, dao, expired, null, Runnable::run);
+		CompletableFuture<List<? extends Principle<?>>> fresh = loader.load(qualifier(2L), "pkList", dao, dao, alive, null, Runnable::run);
+		
+		assertInstanceOf(PrincipleFallback.class, stale.get(5, TimeUnit.SECONDS));
+		assertEquals(2L, fresh.get(5, TimeUnit.SECONDS).get(0).getId());
+		assertSame(alive, dao.boundDeadline.get());
+	}
+	
+	
+	private static PrincipleQualifier<Row> qualifier(Long id) {
+		PrincipleQualifier<Row> qualifier = new PrincipleQualifier<>(Row.class, new Row(id));
+		qualifier.setDescribe("pk");
+		return qualifier;
+	}
+	
+	
+	static class Row extends Principle<Long> {
+		private static final long serialVersionUID = 1L;
+		
+		Row(Long id) {
+			super(id);
+		}
+	}
+	
+	
+	/**
+	 * 记录查询时绑定的截止时间；收集窗口较长，两个成员凑满单批上限后立即发起
+	 */
+	static class Dao implements FusibleDao<Row>, CustomReadBatching {
+		final AtomicReference<Deadline> boundDeadline = new AtomicReference<>();
+		
+		@Override
+		public List<Row> subCollection(PrincipleQualifier<Row> qualifier) {
+			boundDeadline.set(DeadlineContext.current());
+			return null == qualifier.getSimilarList() ? List.of(qualifier.getSimilar())
+					: qualifier.getSimilarList().stream().map(similar -> new Row(similar.getId())).toList();
+		}
+		@Override
+		public List<Row> splitFused(PrincipleQualifier<Row> qualifier, List<Row> fusedRows) {
+			return fusedRows.stream().filter(row -> row.getId().equals(qualifier.getSimilar().getId())).toList();
+		}
+		@Override
+		public String fusedDescribe(String describe) {
+			return "pkList";
+		}
+		@Override
+		public Long save(PrincipleImagery<Row> principleImagery) {
+			throw new UnsupportedOperationException();
+		}
+		@Override
+		public long getBatchWindowMillis() {
+			return 60_000;
+		}
+		@Override
+		public int getMaxBatchSize() {
+			return 2;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl.read;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import xyz.zhiwei.cognitivedesign.dao.Dao;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.CustomReadHedging;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleFallback;
+
+/**
+ * 对冲读取：兜底结果视为失败，仅在全部已发起的查询失败时传出
+ */
+class ReadHedgingTest {
+
+	private static final CustomReadHedging HEDGING = new CustomReadHedging() {
+		@Override
+		public double getHedgePercentile() {
+			return 0.5;
+		}
+		@Override
+		public double getHedgeBudget() {
+			return 1.0;
+		}
+		@Override
+		public Dao<?> getHedgeDao() {
+			return null;
+		}
+	};
+	
+	private ReadHedging readHedging;
+	
+	
+	@BeforeEach
+	void setUp() {
+		readHedging = new ReadHedging(Runnable::run);
+		// 积累足够的耗时样本，使对冲在约1ms后发起
+		for (int i = 0; i < 128; i++) {
+			readHedging.timed(String.class, () -> null).get();
+		}
+	}
+	
+	
+	@Test
+	void fallbackFromPrimaryDoesNotWinOverHedge() throws Exception {
+		CompletableFuture<List<String>> primary = new CompletableFuture<>();
+		CompletableFuture<List<String>> winner = readHedging.hedge(String.class, HEDGING, primary,
+				() -> CompletableFuture.supplyAsync(() -> {
+					primary.complete(fallback());
+					return List.of("hedged");
+				}));
+		
+		assertEquals(List.of("hedged"), winner.get(5, TimeUnit.SECONDS));
+	}
+	
+	@Test
+	void fallbackIsReturnedWhenEveryQueryFails() throws Exception {
+		CompletableFuture<List<String>> primary = new CompletableFuture<>();
+		CompletableFuture<List<String>> winner = readHedging.hedge(String.class, HEDGING, primary,
+				() -> {
+					primary.complete(fallback());
+					return CompletableFuture.completedFuture(fallback());
+				});
+		
+		assertInstanceOf(PrincipleFallback.class, winner.get(5, TimeUnit.SECONDS));
+	}
+	
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static List<String> fallback() {
+		return (List) new PrincipleFallback<>();
+	}
+}
@@ -0,0 +1,83 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl.write;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.Test;
+
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.DependentImage;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.ImageLane;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImage;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ImageResponse;
+
+/**
+ * 泳道批次调度：失败沿依赖传播，不依赖失败批次的批次照常执行，依赖声明错误不同步抛出
+ */
+class LaneBatchGraphTest {
+
+	private static final Executor DIRECT = Runnable::run;
+	
+	private final Set<Integer> executed = ConcurrentHashMap.newKeySet();
+	
+	
+	@Test
+	void failureSkipsDependentsButNotIndependentBatches() {
+		IllegalStateException failure = new IllegalStateException("batch 0 failed");
+		ImageLane lane = new ImageLane()
+				.addOne(responses -> new PrincipleImage())
+				.addOne(responses -> new PrincipleImage(), 0)
+				.addOne(responses -> new PrincipleImage(), new int[0]);
+		
+		CompletableFuture<List<ImageResponse>> future = LaneBatchGraph.run(lane, (batchIndex, responses) -> batchIndex == 0
+				? CompletableFuture.failedFuture(failure) : succeed(batchIndex), DIRECT);
+		
+		CompletionException thrown = assertThrows(CompletionException.class, future::join);
+		assertSame(failure, thrown.getCause());
+		assertEquals(Set.of(2), executed);
+	}
+	
+	@Test
+	void undeclaredDependencyWaitsForAllPreviousBatches() {
+		ImageLane lane = new ImageLane(responses -> new PrincipleImage(), responses -> new PrincipleImage(), responses -> new PrincipleImage());
+		
+		CompletableFuture<List<ImageResponse>> future = LaneBatchGraph.run(lane, (batchIndex, responses) -> batchIndex == 1
+				? CompletableFuture.failedFuture(new IllegalStateException()) : succeed(batchIndex), DIRECT);
+		
+		assertTrue(future.isCompletedExceptionally());
+		assertEquals(Set.of(0), executed);
+	}
+	
+	@Test
+	void invalidDependencyFailsTheLaneInsteadOfThrowing() {
+		ImageLane lane = new ImageLane();
+		lane.add(new DependentImage(responses -> new PrincipleImage(), 3));
+		lane.add(responses -> new PrincipleImage());
+		
+		CompletableFuture<List<ImageResponse>> future = LaneBatchGraph.run(lane, (batchIndex, responses) -> succeed(batchIndex), DIRECT);
+		
+		CompletionException thrown = assertThrows(CompletionException.class, future::join);
+		assertInstanceOf(IllegalArgumentException.class, thrown.getCause());
+		assertTrue(executed.isEmpty());
+	}
+	
+	@Test
+	void negativeDependencyIsRejectedOnConstruction() {
+		assertThrows(IllegalArgumentException.class, () -> new DependentImage(responses -> new PrincipleImage(), -1));
+	}
+	
+	
+	private CompletableFuture<ImageResponse> succeed(int batchIndex) {
+		executed.add(batchIndex);
+		return CompletableFuture.completedFuture(new ImageResponse());
+	}
+}
@@ -0,0 +1,130 @@
+package xyz.zhiwei.cognitivedesign.dao.accessimpl.write.normalgroup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+import xyz.zhiwei.cognitivedesign.dao.GroupCommitDao;
+import xyz.zhiwei.cognitivedesign.dao.GroupRollbackException;
+import xyz.zhiwei.cognitivedesign.dao.accessimpl.CustomWriteBatching;
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.PrincipleImagery;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+import xyz.zhiwei.cognitivedesign.service.Deadline;
+
+/**
+ * 跨请求组提交：确认回滚时逐块重试，只有自身失败的块失败；未确认回滚时整组失败且不重试
+ */
+class GroupCommitterTest {
+
+	private final GroupCommitter committer = new GroupCommitter();
+	
+	
+	@Test
+	void confirmedRollbackRetriesUnitsAndFailsOnlyTheBadOne() throws Exception {
+		Dao dao = new Dao(true);
+		CompletableFuture<Long> good = save(dao, "good", null);
+		CompletableFuture<Long> bad = save(dao, "bad", null);
+		CompletableFuture<Long> other = save(dao, "other", null);
+		
+		assertEquals(1L, good.get(5, TimeUnit.SECONDS));
+		assertEquals(1L, other.get(5, TimeUnit.SECONDS));
+		ExecutionException thrown = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(GroupRollbackException.class, thrown.getCause());
+		// 一次整组提交 + 三次单块重试
+		assertEquals(4, dao.calls.size());
+	}
+	
+	@Test
+	void unconfirmedRollbackFailsTheWholeGroupWithoutRetry() {
+		Dao dao = new Dao(false);
+		List<CompletableFuture<Long>> futures = List.of(save(dao, "good", null), save(dao, "bad", null), save(dao, "other", null));
+		
+		futures.forEach(future -> assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS)));
+		assertEquals(1, dao.calls.size());
+	}
+	
+	@Test
+	void expiredUnitIsDroppedBeforeCommit() throws Exception {
+		Dao dao = new Dao(true);
+		CompletableFuture<Long> expired = save(dao, "late", Deadline.afterMillis(0));
+		CompletableFuture<Long> first = save(dao, "good", null);
+		CompletableFuture<Long> second = save(dao, "other", null);
+		
+		ExecutionException thrown = assertThrows(ExecutionException.class, () -> expired.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(TimeoutException.class, thrown.getCause());
+		assertEquals(1L, first.get(5, TimeUnit.SECONDS));
+		assertEquals(1L, second.get(5, TimeUnit.SECONDS));
+		assertEquals(List.of(List.of("good", "other")), dao.calls);
+	}
+	
+	
+	private CompletableFuture<Long> save(Dao dao, String name, Deadline deadline) {
+		PrincipleImagery<Row> imagery = new PrincipleImagery<>(List.of(new Row(name)), "add");
+		return committer.save(Row.class, imagery, deadline, dao, dao, Runnable::run);
+	}
+	
+	
+	static class Row extends Principle<Long> {
+		private static final long serialVersionUID = 1L;
+		
+		Row(String name) {
+			super(null, name);
+		}
+	}
+	
+	
+	/**
+	 * 含名为bad的行时整组失败；每块一行，影响行数为1
+	 * 收集窗口较长，三块凑满单次上限后立即提交
+	 */
+	static class Dao implements GroupCommitDao<Row>, CustomWriteBatching {
+		private final boolean confirmRollback;
+		// 每次saveGroup的行名
+		final List<List<String>> calls = new ArrayList<>();
+		
+		Dao(boolean confirmRollback) {
+			this.confirmRollback = confirmRollback;
+		}
+		
+		@Override
+		public List<Long> saveGroup(List<PrincipleImagery<Row>> imageries) {
+			List<String> names = imageries.stream().flatMap(List::stream).map(Row::getName).toList();
+			calls.add(names);
+			if (names.contains("bad")) {
+				RuntimeException cause = new IllegalStateException("duplicate key");
+				throw confirmRollback ? new GroupRollbackException("rolled back", cause) : cause;
+			}
+			return imageries.stream().map(imagery -> 1L).toList();
+		}
+		@Override
+		public boolean isGroupCommittable(String describe) {
+			return true;
+		}
+		@Override
+		public List<Row> subCollection(PrincipleQualifier<Row> qualifier) {
+			throw new UnsupportedOperationException();
+		}
+		@Override
+		public Long save(PrincipleImagery<Row> principleImagery) {
+			throw new UnsupportedOperationException();
+		}
+		@Override
+		public long getCommitWindowMillis() {
+			return 60_000;
+		}
+		@Override
+		public int getMaxCommitUnits() {
+			return 3;
+		}
+	}
+}
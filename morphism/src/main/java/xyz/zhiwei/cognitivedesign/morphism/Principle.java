@@ -13,7 +13,8 @@ import java.lang.reflect.Type;
 public class Principle<ID> implements Serializable {
 
     private static final long serialVersionUID = 10L;
-	protected  Class<ID> idClazz;
+	//泛型类型缓存（派生值，不参与序列化与比较）
+	protected transient Class<ID> idClazz;
 
     protected ID id;//Integer/Long/String
     protected String name;
@@ -0,0 +1,48 @@
+package xyz.zhiwei.cognitivedesign.morphism.principle.image.container;
+
+import java.util.List;
+import java.util.function.Function;
+
+import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ImageResponse;
+
+/**
+ * 声明依赖的批次函数
+ * 默认批次依赖其前面的全部批次；包装为本类后，仅在所声明的前序批次完成后即可执行，不必等待其它批次。
+ * 入参列表长度仍为当前批次序号，未声明依赖的位置为null。
+ */
+public class DependentImage implements Function<List<ImageResponse>,PrincipleImage>{
+
+	private final Function<List<ImageResponse>,PrincipleImage> fun;
+	private final int[] dependsOn;
+	
+	
+	/**
+	 * @param fun 批次函数
+	 * @param dependsOn 所依赖的前序批次序号（可为空，表示无依赖；须不小于0，是否位于当前批次之前在调度时校验）
+	 * @throws IllegalArgumentException 批次函数为空或依赖序号为负
+	 */
+	public DependentImage(Function<List<ImageResponse>,PrincipleImage> fun,int... dependsOn) {
+		if (null == fun) {
+			throw new IllegalArgumentException("批次函数不能为空");
+		}
+		this.fun=fun;
+		this.dependsOn=null==dependsOn?new int[0]:dependsOn.clone();
+		for (int dependency : this.dependsOn) {
+			if (dependency < 0) {
+				throw new IllegalArgumentException("依赖序号不能为负：" + dependency);
+			}
+		}
+	}
+	
+
+	@Override
+	public PrincipleImage apply(List<ImageResponse> imageResponseList) {
+		return fun.apply(imageResponseList);
+	}
+	
+
+	public int[] getDependsOn() {
+		return dependsOn.clone();
+	}
+	
+}
@@ -8,10 +8,11 @@ import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ImageRespons
 
 /**
  * 映像集泳道
+ * 批次函数的入参为此前批次的响应（按批次序号排列）；默认每个批次依赖此前全部批次，依次执行。
+ * 声明了依赖的批次（DependentImage）只等待所依赖的批次，互不依赖的批次并发执行，入参中未依赖批次的位置为null。
  */
 public class ImageLane extends ArrayList<Function<List<ImageResponse>,PrincipleImage>>{
 	private static final long serialVersionUID = 1L;
-
 	
 
 	public ImageLane() {}
@@ -53,6 +54,23 @@ public class ImageLane extends ArrayList<Function<List<ImageResponse>,PrincipleI
 		return this;
 	}
 	
+	/**
+	 * 追加一个声明依赖的批次
+	 * 该批次只等待所声明的前序批次，其余批次可与其并行
+	 * @param fun
+	 * @param dependsOn 所依赖的前序批次序号，须小于当前批次序号
+	 * @return
+	 */
+	public ImageLane addOne(Function<List<ImageResponse>,PrincipleImage> fun,int... dependsOn) {
+		for (int dependency : dependsOn) {
+			if (dependency < 0 || dependency >= this.size()) {
+				throw new IllegalArgumentException("依赖批次序号越界：" + dependency + "，当前批次序号：" + this.size());
+			}
+		}
+		this.add(new DependentImage(fun, dependsOn));
+		return this;
+	}
+	
 	public ImageLane add(Function<List<ImageResponse>,PrincipleImage> first,Function<List<ImageResponse>,PrincipleImage> second) {
 		this.add(first);
 		this.add(second);
@@ -81,6 +99,5 @@ public class ImageLane extends ArrayList<Function<List<ImageResponse>,PrincipleI
 		this.add(fifth);
 		return this;
 	}
-	
-	
+
 }
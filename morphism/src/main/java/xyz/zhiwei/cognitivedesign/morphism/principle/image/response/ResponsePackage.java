@@ -14,6 +14,11 @@ public class ResponsePackage {
 	 * 事务组列表
 	 */
 	private List<ResponseLaneGroup> transactionGroupList;
+	/**
+	 * 一致性令牌：存储完成的时刻（毫秒时间戳）
+	 * 调用方后续的读取携带它（如ReadScope）时，在该时刻后的固定期内走主库
+	 */
+	private long consistencyToken;
 	
 	
 	public ResponsePackage(ResponseLaneGroup noTransactionGroup) {
@@ -45,5 +50,11 @@ public class ResponsePackage {
 	public void setTransactionGroupList(List<ResponseLaneGroup> transactionGroupList) {
 		this.transactionGroupList = transactionGroupList;
 	}
+	public long getConsistencyToken() {
+		return consistencyToken;
+	}
+	public void setConsistencyToken(long consistencyToken) {
+		this.consistencyToken = consistencyToken;
+	}
 
 }
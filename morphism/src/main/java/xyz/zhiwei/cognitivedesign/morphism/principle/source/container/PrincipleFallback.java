@@ -0,0 +1,17 @@
+package xyz.zhiwei.cognitivedesign.morphism.principle.source.container;
+
+import java.util.ArrayList;
+
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+
+/**
+ * 兜底原象集
+ * 查询失败、超时或已截止时给出的空结果，与查询到的空结果相区分：兜底结果不参与记忆与共享，后续相同的查询会重新执行
+ * @param <P>
+ */
+public class PrincipleFallback<P extends Principle<?>> extends ArrayList<P>{
+    private static final long serialVersionUID = 1L;
+
+	public PrincipleFallback(){}
+
+}
@@ -16,6 +16,10 @@ public class PrinciplePage<P extends Principle<?>> extends ArrayList<P>{
      * 总数
      */
     private Long total;
+    /**
+     * 键集分页的续读键：本页最后一行，作为下一页的rangeStart；没有下一页时为null
+     */
+    private P nextRangeStart;
     
 	public Long getTotal() {
 		return total;
@@ -23,6 +27,12 @@ public class PrinciplePage<P extends Principle<?>> extends ArrayList<P>{
 	public void setTotal(Long total) {
 		this.total = total;
 	}
+	public P getNextRangeStart() {
+		return nextRangeStart;
+	}
+	public void setNextRangeStart(P nextRangeStart) {
+		this.nextRangeStart = nextRangeStart;
+	}
 
 	public PrinciplePage(){}
 
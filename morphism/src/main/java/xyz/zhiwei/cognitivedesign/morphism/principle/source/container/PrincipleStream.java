@@ -0,0 +1,132 @@
+package xyz.zhiwei.cognitivedesign.morphism.principle.source.container;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+
+/**
+ * 流式本原列表
+ * 限定符设置streaming时，Dao返回的游标流包装为本列表放入本原集，构造时逐行消费，不整体载入内存。
+ * 只能遍历一次（stream/iterator/forEach）；size/get等随机访问会将剩余行载入内存，仅作兼容。
+ * 持有底层连接，使用完毕须关闭，Service在构造结束后统一关闭。
+ * @param <P>
+ */
+public class PrincipleStream<P extends Principle<?>> extends AbstractList<P> implements AutoCloseable {
+	
+	private final Stream<P> stream;
+	private List<P> buffered;
+	private boolean consumed;
+	private final List<Runnable> closeHandlers = new CopyOnWriteArrayList<>();
+	private final AtomicBoolean closed = new AtomicBoolean();
+	
+	public PrincipleStream(Stream<P> stream) {
+		this.stream = stream;
+	}
+	
+	
+	@Override
+	public Stream<P> stream() {
+		return null != buffered ? buffered.stream() : take();
+	}
+	
+	@Override
+	public Iterator<P> iterator() {
+		return null != buffered ? buffered.iterator() : take().iterator();
+	}
+	
+	@Override
+	public void forEach(Consumer<? super P> action) {
+		stream().forEach(action);
+	}
+	
+	@Override
+	public P get(int index) {
+		return materialize().get(index);
+	}
+
+	@Override
+	public int size() {
+		return materialize().size();
+	}
+	
+	
+	/**
+	 * 登记关闭时执行的动作（如释放并发许可），在底层流关闭之后执行
+	 * @param closeHandler
+	 * @return
+	 */
+	public PrincipleStream<P> onClose(Runnable closeHandler) {
+		closeHandlers.add(closeHandler);
+		// 登记前已关闭：立即执行（重复执行由动作自身保证无副作用）
+		if (closed.get() && closeHandlers.remove(closeHandler)) {
+			closeHandler.run();
+		}
+		return this;
+	}
+	
+	/**
+	 * 关闭底层流并执行登记的关闭动作（重复关闭无副作用）
+	 */
+	@Override
+	public void close() {
+		if (!closed.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			stream.close();
+		} finally {
+			closeHandlers.forEach(Runnable::run);
+		}
+	}
+	
+	
+	/**
+	 * 关闭本原集中的全部流式列表
+	 * @param principleSourceLaneList
+	 */
+	public static void closeAll(List<PrincipleSourceLane> principleSourceLaneList) {
+		if (null == principleSourceLaneList) {
+			return;
+		}
+		for (PrincipleSourceLane principleSourceLane : principleSourceLaneList) {
+			if (null == principleSourceLane) {
+				continue;
+			}
+			for (PrincipleSource principleSource : principleSourceLane) {
+				if (null == principleSource) {
+					continue;
+				}
+				for (List<? extends Principle<?>> list : principleSource) {
+					if (list instanceof PrincipleStream<?> principleStream) {
+						principleStream.close();
+					}
+				}
+			}
+		}
+	}
+	
+	
+	
+	private Stream<P> take() {
+		if (consumed) {
+			throw new IllegalStateException("流式本原列表只能遍历一次");
+		}
+		consumed = true;
+		return stream;
+	}
+	
+	private List<P> materialize() {
+		if (null == buffered) {
+			buffered = take().collect(Collectors.toCollection(ArrayList::new));
+		}
+		return buffered;
+	}
+}
@@ -0,0 +1,74 @@
+package xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+
+/**
+ * 规范形式
+ * 本原通常不覆写equals，此处将本原按字段值（含父类字段，不含static/transient）展开为可比较的值，
+ * 用于判定两个限定符是否描述同一个子集。
+ * 只展开一层：本原字段中的本原仍按其自身equals比较，避免对象图成环。
+ */
+public final class CanonicalForm {
+	
+	private static final Map<Class<?>, List<Field>> FIELD_CACHE = new ConcurrentHashMap<>();
+	
+	private CanonicalForm() {}
+	
+	
+	/**
+	 * 本原展开为[类型, 字段值...]；本原列表逐个展开；其它值原样返回
+	 * @param value
+	 * @return
+	 */
+	public static Object of(Object value) {
+		if (value instanceof Principle) {
+			return principleForm(value);
+		}
+		if (value instanceof List) {
+			List<Object> form = new ArrayList<>(((List<?>) value).size());
+			for (Object item : (List<?>) value) {
+				form.add(item instanceof Principle ? principleForm(item) : item);
+			}
+			return form;
+		}
+		return value;
+	}
+	
+	
+	private static List<Object> principleForm(Object principle) {
+		List<Field> fields = FIELD_CACHE.computeIfAbsent(principle.getClass(), CanonicalForm::fieldsOf);
+		List<Object> form = new ArrayList<>(fields.size() + 1);
+		form.add(principle.getClass());
+		for (Field field : fields) {
+			try {
+				form.add(field.get(principle));
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException("无法读取本原字段：" + field, e);
+			}
+		}
+		return form;
+	}
+	
+	
+	private static List<Field> fieldsOf(Class<?> clazz) {
+		List<Field> fields = new ArrayList<>();
+		for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+					continue;
+				}
+				field.setAccessible(true);
+				fields.add(field);
+			}
+		}
+		return fields;
+	}
+}
@@ -0,0 +1,39 @@
+package xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier;
+
+import java.util.List;
+import java.util.function.Function;
+
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleSource;
+
+/**
+ * 声明依赖的批次函数
+ * 默认批次依赖其前面的全部批次；包装为本类后，仅在所声明的前序批次完成后即可执行，不必等待其它批次。
+ * 入参列表长度仍为当前批次序号，未声明依赖的位置为null。
+ */
+public class DependentQualifiers implements Function<List<PrincipleSource>,PrincipleQualifiers>{
+
+	private final Function<List<PrincipleSource>,PrincipleQualifiers> fun;
+	private final int[] dependsOn;
+	
+	
+	/**
+	 * @param fun 批次函数
+	 * @param dependsOn 所依赖的前序批次序号（可为空，表示无依赖）
+	 */
+	public DependentQualifiers(Function<List<PrincipleSource>,PrincipleQualifiers> fun,int... dependsOn) {
+		this.fun=fun;
+		this.dependsOn=null==dependsOn?new int[0]:dependsOn.clone();
+	}
+	
+
+	@Override
+	public PrincipleQualifiers apply(List<PrincipleSource> principleSourceList) {
+		return fun.apply(principleSourceList);
+	}
+	
+
+	public int[] getDependsOn() {
+		return dependsOn.clone();
+	}
+	
+}
@@ -2,7 +2,9 @@ package xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import xyz.zhiwei.cognitivedesign.morphism.Principle;
 
@@ -12,7 +14,6 @@ import xyz.zhiwei.cognitivedesign.morphism.Principle;
  */
 public class PrincipleQualifier<P extends Principle<?>> {
 	
-	private final Object lock = new Object();
 	private volatile Class<P> principleClazz;
 	
 	private String describe;
@@ -29,6 +30,29 @@ public class PrincipleQualifier<P extends Principle<?>> {
 	 */
 	private Long limitStart;
 	private Long limitEnd;
+	
+	/*
+	 * 流式读取：结果为PrincipleStream，构造时逐行消费（适用于大结果集）
+	 * 流只能遍历一次，后续批次的查询函数不应读取该结果；流式限定符不参与查询去重与合并
+	 */
+	private boolean streaming;
+	
+	/*
+	 * 分页总数模式：为空时按查询方式取默认值（偏移分页统计总数，键集分页不统计）
+	 * 键集分页：rangeStart为上一页的最后一行（即上一页PrinciplePage.nextRangeStart），首页为空；页大小取limitStart/limitEnd
+	 */
+	private TotalMode totalMode;
+	
+	/*
+	 * 列投影：只需要的字段名，为空时取全部列
+	 * 投影结果只填充所列字段（主键总会带上），不参与按主键的实体缓存与查询合并
+	 */
+	private Set<String> projection;
+	
+	/*
+	 * 规范形式缓存：首次判等/取哈希时计算，setter中失效
+	 */
+	private volatile List<Object> canonical;
 
     
     // 1. 显式传入Class对象的构造函数
@@ -73,53 +97,53 @@ public class PrincipleQualifier<P extends Principle<?>> {
     
     /**
      * 因为service要根据这个泛型来获取dao实现类，所以才有如此复杂的泛型获取方法。
+     * 解析结果只取决于限定符自身，并发首次解析时各线程结果一致，故无需加锁，重复解析一次亦无副作用。
      * @return
      */
-    @SuppressWarnings("unchecked")
 	public Class<P> getPrincipleClazz() {
-        if (principleClazz == null) {
-            synchronized (lock) {
-                if (principleClazz == null) {
-                	
-                    // 尝试从第一个非空的P类型实例中获取泛型
-                    P nonNullInstance = null;
-                    if (similar != null) {
-                        nonNullInstance = similar;
-                    }else if (similarList != null && !similarList.isEmpty()) {
-                        for (P item : similarList) {
-                            if (item != null) {
-                                nonNullInstance = item;
-                                break; 
-                            }
-                        }
-                    }else if (rangeStart != null) {
-                        nonNullInstance = rangeStart;
-                    }else if (rangeEnd != null) {
-                        nonNullInstance = rangeEnd;
-                    }
-                    
-                    if (nonNullInstance != null) {
-                    	principleClazz= (Class<P>) nonNullInstance.getClass();
-                    	return principleClazz;
-                    }
-                    
-                    // 尝试从子类中获取泛型
-                    Type genericSuper = this.getClass().getGenericSuperclass();
-                    if (genericSuper instanceof ParameterizedType) {
-                        ParameterizedType paramType = (ParameterizedType) genericSuper;
-                        Type actualType = paramType.getActualTypeArguments()[0];
-                        
-                        if (actualType instanceof Class) {
-                        	principleClazz= (Class<P>) actualType;
-                        	return principleClazz;
-                        }
-                    }
-                    throw new IllegalStateException("无法解析泛型类型，请显式指定Class对象");
+		Class<P> clazz = principleClazz;
+        if (clazz == null) {
+        	clazz = resolvePrincipleClazz();
+        	principleClazz = clazz;
+        }
+        return clazz;
+    }
+	
+	@SuppressWarnings("unchecked")
+	private Class<P> resolvePrincipleClazz() {
+        // 尝试从第一个非空的P类型实例中获取泛型
+        P nonNullInstance = null;
+        if (similar != null) {
+            nonNullInstance = similar;
+        }else if (similarList != null && !similarList.isEmpty()) {
+            for (P item : similarList) {
+                if (item != null) {
+                    nonNullInstance = item;
+                    break; 
                 }
             }
+        }else if (rangeStart != null) {
+            nonNullInstance = rangeStart;
+        }else if (rangeEnd != null) {
+            nonNullInstance = rangeEnd;
         }
-        return principleClazz;
-    }
+        
+        if (nonNullInstance != null) {
+        	return (Class<P>) nonNullInstance.getClass();
+        }
+        
+        // 尝试从子类中获取泛型
+        Type genericSuper = this.getClass().getGenericSuperclass();
+        if (genericSuper instanceof ParameterizedType) {
+            ParameterizedType paramType = (ParameterizedType) genericSuper;
+            Type actualType = paramType.getActualTypeArguments()[0];
+            
+            if (actualType instanceof Class) {
+            	return (Class<P>) actualType;
+            }
+        }
+        throw new IllegalStateException("无法解析泛型类型，请显式指定Class对象");
+	}
     
     
     // 计算并返回int类型的pageSize（核心：左闭右开，页数=end - start）
@@ -145,42 +169,131 @@ public class PrincipleQualifier<P extends Principle<?>> {
     }
 
 
+	/**
+	 * 规范形式：描述同一子集的限定符规范形式相等
+	 * 子类新增影响查询结果的字段时，应覆写本方法追加这些字段，并在这些字段的setter中调用invalidateCanonicalForm
+	 * @return
+	 */
+	protected List<Object> canonicalForm() {
+		List<Object> form = new ArrayList<>();
+		form.add(getPrincipleClazz());
+		form.add(describe);
+		form.add(CanonicalForm.of(similar));
+		form.add(CanonicalForm.of(similarList));
+		form.add(CanonicalForm.of(rangeStart));
+		form.add(CanonicalForm.of(rangeEnd));
+		form.add(limitStart);
+		form.add(limitEnd);
+		form.add(streaming);
+		form.add(totalMode);
+		form.add(projection);
+		return form;
+	}
+	
+	
+	/**
+	 * 使缓存的规范形式失效（修改了影响规范形式的字段后调用）
+	 */
+	protected void invalidateCanonicalForm() {
+		canonical = null;
+	}
+	
+	private List<Object> canonical() {
+		List<Object> form = canonical;
+		if (null == form) {
+			form = canonicalForm();
+			canonical = form;
+		}
+		return form;
+	}
+	
+	
+	/**
+	 * 按规范形式判等（不区分子类，子类的附加条件体现在其规范形式中），用于查询去重/缓存；作为键使用期间不应再修改限定符
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PrincipleQualifier<?> other)) {
+			return false;
+		}
+		return canonical().equals(other.canonical());
+	}
+
+	@Override
+	public int hashCode() {
+		return canonical().hashCode();
+	}
+	
+
 	
 	public P getSimilar() {
 		return similar;
 	}
 	public void setSimilar(P similar) {
 		this.similar = similar;
+		invalidateCanonicalForm();
 	}
 	public List<P> getSimilarList() {
 		return similarList;
 	}
 	public void setSimilarList(List<P> similarList) {
 		this.similarList = similarList;
+		invalidateCanonicalForm();
 	}
 	public P getRangeStart() {
 		return rangeStart;
 	}
 	public void setRangeStart(P rangeStart) {
 		this.rangeStart = rangeStart;
+		invalidateCanonicalForm();
 	}
 	public P getRangeEnd() {
 		return rangeEnd;
 	}
 	public void setRangeEnd(P rangeEnd) {
 		this.rangeEnd = rangeEnd;
+		invalidateCanonicalForm();
 	}
 	public Long getLimitStart() {
 		return limitStart;
 	}
 	public void setLimitStart(Long limitStart) {
 		this.limitStart = limitStart;
+		invalidateCanonicalForm();
 	}
 	public Long getLimitEnd() {
 		return limitEnd;
 	}
 	public void setLimitEnd(Long limitEnd) {
 		this.limitEnd = limitEnd;
+		invalidateCanonicalForm();
+	}
+
+	public boolean isStreaming() {
+		return streaming;
+	}
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+		invalidateCanonicalForm();
+	}
+
+	public TotalMode getTotalMode() {
+		return totalMode;
+	}
+	public void setTotalMode(TotalMode totalMode) {
+		this.totalMode = totalMode;
+		invalidateCanonicalForm();
+	}
+
+	public Set<String> getProjection() {
+		return projection;
+	}
+	public void setProjection(Set<String> projection) {
+		this.projection = projection;
+		invalidateCanonicalForm();
 	}
 
 	public String getDescribe() {
@@ -189,6 +302,7 @@ public class PrincipleQualifier<P extends Principle<?>> {
 
 	public void setDescribe(String describe) {
 		this.describe = describe;
+		invalidateCanonicalForm();
 	}
 
 
@@ -13,6 +13,11 @@ import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleS
  */
 public class QualifiersLane extends ArrayList<Function<List<PrincipleSource>,PrincipleQualifiers>>{
 	private static final long serialVersionUID = 744486526313474622L;
+	
+	//依赖分析模式（可选）
+	private boolean dependencyAnalysis;
+	//批次依赖形态的缓存键，一般为所属表象类
+	private Object shapeKey;
 
 	public QualifiersLane() {}
 	
@@ -53,6 +58,48 @@ public class QualifiersLane extends ArrayList<Function<List<PrincipleSource>,Pri
 		return this;
 	}
 	
+	/**
+	 * 开启依赖分析模式
+	 * 批次函数收到的是访问追踪视图：函数读取了哪些前序批次即视为依赖哪些，未读取的批次可并行执行，
+	 * 分析得到的依赖形态按shapeKey缓存复用。
+	 * 要求批次函数无副作用：读取到尚未完成的批次时，函数会在该批次完成后被重新执行。
+	 * @return
+	 */
+	public QualifiersLane analyzeDependencies() {
+		this.dependencyAnalysis = true;
+		return this;
+	}
+	
+	public boolean isDependencyAnalysis() {
+		return dependencyAnalysis;
+	}
+
+	public Object getShapeKey() {
+		return shapeKey;
+	}
+
+	public void setShapeKey(Object shapeKey) {
+		this.shapeKey = shapeKey;
+	}
+	
+	
+	/**
+	 * 追加一个声明依赖的批次
+	 * 该批次只等待所声明的前序批次，其余批次可与其并行
+	 * @param fun
+	 * @param dependsOn 所依赖的前序批次序号，须小于当前批次序号
+	 * @return
+	 */
+	public QualifiersLane addOne(Function<List<PrincipleSource>,PrincipleQualifiers> fun,int... dependsOn) {
+		for (int dependency : dependsOn) {
+			if (dependency < 0 || dependency >= this.size()) {
+				throw new IllegalArgumentException("依赖批次序号越界：" + dependency + "，当前批次序号：" + this.size());
+			}
+		}
+		this.add(new DependentQualifiers(fun, dependsOn));
+		return this;
+	}
+	
 	public QualifiersLane add(Function<List<PrincipleSource>,PrincipleQualifiers> first,Function<List<PrincipleSource>,PrincipleQualifiers> second) {
 		this.add(first);
 		this.add(second);
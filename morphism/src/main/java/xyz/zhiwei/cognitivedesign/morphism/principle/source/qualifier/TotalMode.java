@@ -0,0 +1,24 @@
+package xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier;
+
+/**
+ * 分页总数模式
+ * 统计总数需要额外的COUNT查询，不展示总数的调用方应关闭。
+ */
+public enum TotalMode {
+	
+	/**
+	 * 精确总数（额外执行COUNT查询）
+	 */
+	EXACT,
+	
+	/**
+	 * 近似总数（如取自表统计信息，适用于超大表）；Dao不支持时退化为精确总数
+	 */
+	APPROXIMATE,
+	
+	/**
+	 * 不统计总数（PrinciplePage.total为null）
+	 */
+	NONE
+	
+}
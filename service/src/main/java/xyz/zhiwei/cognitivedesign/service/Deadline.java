@@ -0,0 +1,70 @@
+package xyz.zhiwei.cognitivedesign.service;
+
+import java.time.Duration;
+
+/**
+ * 截止时间
+ * 一次表象展示/变换的整体时限，本原集存取的各批次、各单元以剩余时间为上限，
+ * 并下推为JDBC查询超时、Redis命令超时、Feign请求超时及JTA事务超时。
+ */
+public final class Deadline {
+	
+	// 基于System.nanoTime的绝对时刻
+	private final long deadlineNanos;
+	
+	private Deadline(long deadlineNanos) {
+		this.deadlineNanos = deadlineNanos;
+	}
+	
+	
+	/**
+	 * 自当前起经过timeout后截止
+	 * @param timeout
+	 * @return
+	 */
+	public static Deadline after(Duration timeout) {
+		return new Deadline(System.nanoTime() + timeout.toNanos());
+	}
+	
+	/**
+	 * 自当前起经过timeoutMillis毫秒后截止
+	 * @param timeoutMillis
+	 * @return
+	 */
+	public static Deadline afterMillis(long timeoutMillis) {
+		return after(Duration.ofMillis(timeoutMillis));
+	}
+	
+	
+	/**
+	 * 剩余毫秒数，已截止时为0
+	 * @return
+	 */
+	public long remainingMillis() {
+		return Math.max(0L, Duration.ofNanos(deadlineNanos - System.nanoTime()).toMillis());
+	}
+	
+	/**
+	 * 剩余秒数（向上取整），已截止时为0
+	 * 用于只接受秒的超时设置（JDBC查询超时、JTA事务超时）
+	 * @return
+	 */
+	public int remainingSeconds() {
+		long millis = remainingMillis();
+		return (int) Math.min(Integer.MAX_VALUE, (millis + 999) / 1000);
+	}
+	
+	/**
+	 * 是否已截止
+	 * @return
+	 */
+	public boolean isExpired() {
+		return deadlineNanos - System.nanoTime() <= 0;
+	}
+
+	
+	@Override
+	public String toString() {
+		return "Deadline[remaining=" + remainingMillis() + "ms]";
+	}
+}
@@ -1,6 +1,7 @@
 package xyz.zhiwei.cognitivedesign.service;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.ImagePackage;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ResponsePackage;
@@ -26,6 +27,66 @@ public interface PrincipleAccessInterface{
     public List<PrincipleSourceLane> query(List<QualifiersLane> qualifiersLaneList);
     
     
+    /**
+     * 异步读取指定数据集
+     * 语义同query，返回的Future完成时即各泳道的查询结果集。
+     * 默认实现仅包装同步查询，实现类应覆盖以避免阻塞调用线程。
+     * @param qualifiersLaneList
+     * @return
+     */
+    public default CompletableFuture<List<PrincipleSourceLane>> queryAsync(List<QualifiersLane> qualifiersLaneList){
+    	return CompletableFuture.completedFuture(query(qualifiersLaneList));
+    }
+    
+    
+    /**
+     * 在截止时间内读取指定数据集
+     * 默认实现忽略截止时间，实现类应覆盖以将剩余时间下推到各查询单元。
+     * @param qualifiersLaneList
+     * @param deadline 可为空（仅受静态单元超时约束）
+     * @return
+     */
+    public default List<PrincipleSourceLane> query(List<QualifiersLane> qualifiersLaneList, Deadline deadline){
+    	return query(qualifiersLaneList);
+    }
+    
+    
+    /**
+     * 在截止时间内异步读取指定数据集
+     * @param qualifiersLaneList
+     * @param deadline 可为空
+     * @return
+     */
+    public default CompletableFuture<List<PrincipleSourceLane>> queryAsync(List<QualifiersLane> qualifiersLaneList, Deadline deadline){
+    	return queryAsync(qualifiersLaneList);
+    }
+    
+    
+    /**
+     * 在读取作用域内读取指定数据集
+     * 作用域内已查询过的限定符复用其结果；默认实现忽略作用域，实现类应覆盖以记住各限定符的结果。
+     * @param qualifiersLaneList
+     * @param deadline 可为空
+     * @param scope 可为空（不记忆）
+     * @return
+     */
+    public default List<PrincipleSourceLane> query(List<QualifiersLane> qualifiersLaneList, Deadline deadline, ReadScope scope){
+    	return query(qualifiersLaneList, deadline);
+    }
+    
+    
+    /**
+     * 在读取作用域内异步读取指定数据集
+     * @param qualifiersLaneList
+     * @param deadline 可为空
+     * @param scope 可为空（不记忆）
+     * @return
+     */
+    public default CompletableFuture<List<PrincipleSourceLane>> queryAsync(List<QualifiersLane> qualifiersLaneList, Deadline deadline, ReadScope scope){
+    	return queryAsync(qualifiersLaneList, deadline);
+    }
+    
+    
     
     
     
@@ -38,6 +99,40 @@ public interface PrincipleAccessInterface{
 	 * @return
 	 */
 	public ResponsePackage save(ImagePackage imagePackage);
+	
+	
+	/**
+	 * 异步存储相关数据集
+	 * 语义同save，默认实现仅包装同步存储，实现类应覆盖以避免阻塞调用线程。
+	 * @param imagePackage
+	 * @return
+	 */
+	public default CompletableFuture<ResponsePackage> saveAsync(ImagePackage imagePackage){
+		return CompletableFuture.completedFuture(save(imagePackage));
+	}
+	
+	
+	/**
+	 * 在截止时间内存储相关数据集
+	 * 默认实现忽略截止时间，实现类应覆盖以将剩余时间下推到各存储单元及事务。
+	 * @param imagePackage
+	 * @param deadline 可为空（仅受静态单元超时约束）
+	 * @return
+	 */
+	public default ResponsePackage save(ImagePackage imagePackage, Deadline deadline) {
+		return save(imagePackage);
+	}
+	
+	
+	/**
+	 * 在截止时间内异步存储相关数据集
+	 * @param imagePackage
+	 * @param deadline 可为空
+	 * @return
+	 */
+	public default CompletableFuture<ResponsePackage> saveAsync(ImagePackage imagePackage, Deadline deadline){
+		return saveAsync(imagePackage);
+	}
     
     
     
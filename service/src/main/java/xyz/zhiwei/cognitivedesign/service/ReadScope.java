@@ -0,0 +1,97 @@
+package xyz.zhiwei.cognitivedesign.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import xyz.zhiwei.cognitivedesign.morphism.Principle;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleFallback;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.PrincipleQualifier;
+
+/**
+ * 读取作用域
+ * 通常与一次外部请求同寿命：作用域内多次表象展示/变换的相同限定符只查询一次，各表象读到一致的本原集。
+ * 作用域内的任一存储使已记住的结果全部失效，并记下一致性令牌（存储完成的时刻）：此后作用域内的读取在该时刻后的固定期内走主库。
+ * 跨请求读到自己的写入时，以上次存储响应的一致性令牌构造作用域。
+ * 同一作用域内的各表象共享本原实例与结果列表，不应修改；作为键使用期间不应再修改限定符。
+ * 流式限定符的结果只能消费一次，不参与记忆；查询失败或兜底（PrincipleFallback）的结果不记忆。
+ */
+public class ReadScope implements AutoCloseable {
+	
+	private final Map<PrincipleQualifier<?>, CompletableFuture<List<? extends Principle<?>>>> results = new ConcurrentHashMap<>();
+	// 一致性令牌（毫秒时间戳），0表示无
+	private final AtomicLong consistencyToken;
+	
+	
+	public ReadScope() {
+		this(0L);
+	}
+	
+	/**
+	 * @param consistencyToken 此前存储响应的一致性令牌
+	 */
+	public ReadScope(long consistencyToken) {
+		this.consistencyToken = new AtomicLong(consistencyToken);
+	}
+	
+	
+	/**
+	 * 已记住相同限定符（含仍在查询中的）时复用其结果，否则以loader发起查询并记住
+	 * @param qualifier
+	 * @param loader
+	 * @return
+	 */
+	public CompletableFuture<List<? extends Principle<?>>> computeIfAbsent(PrincipleQualifier<?> qualifier,
+			Supplier<CompletableFuture<List<? extends Principle<?>>>> loader) {
+		if (qualifier.isStreaming()) {
+			return loader.get();
+		}
+		CompletableFuture<List<? extends Principle<?>>> future = results.computeIfAbsent(qualifier, k -> loader.get());
+		// 只记住成功的查询：失败或兜底的结果移出，作用域内相同的限定符重新查询
+		future.whenComplete((list, e) -> {
+			if (null != e || list instanceof PrincipleFallback) {
+				results.remove(qualifier, future);
+			}
+		});
+		return future;
+	}
+	
+	
+	/**
+	 * 作用域内发生存储：记下一致性令牌（取较晚者），并使已记住的结果全部失效
+	 * @param writtenAtMillis 存储完成的时刻
+	 */
+	public void afterWrite(long writtenAtMillis) {
+		consistencyToken.accumulateAndGet(writtenAtMillis, Math::max);
+		invalidate();
+	}
+	
+	/**
+	 * 一致性令牌
+	 * @return 作用域内未发生存储且未携带令牌时为0
+	 */
+	public long getConsistencyToken() {
+		return consistencyToken.get();
+	}
+	
+	
+	/**
+	 * 使已记住的结果全部失效
+	 */
+	public void invalidate() {
+		results.clear();
+	}
+	
+	
+	/**
+	 * 结束作用域，释放记住的结果
+	 */
+	@Override
+	public void close() {
+		invalidate();
+	}
+	
+}
@@ -1,6 +1,8 @@
 package xyz.zhiwei.cognitivedesign.service;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +14,8 @@ import xyz.zhiwei.cognitivedesign.morphism.Appearance;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.container.ImagePackage;
 import xyz.zhiwei.cognitivedesign.morphism.principle.image.response.ResponsePackage;
 import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleSourceLane;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.container.PrincipleStream;
+import xyz.zhiwei.cognitivedesign.morphism.principle.source.qualifier.QualifiersLane;
 
 
 /**
@@ -25,12 +29,18 @@ public class Service {
 	//本原集存取接口
     private PrincipleAccessInterface setAccessImpl;
     private final ObjectMapper objectMapper;
+    //默认整体时限（未显式传入截止时间时使用），为空则仅受静态单元超时约束
+    private final Duration defaultTimeout;
     
     
     //构造方法
     public Service(PrincipleAccessInterface setAccessImpl,ObjectMapper objectMapper) {
+    	this(setAccessImpl,objectMapper,null);
+    }
+    public Service(PrincipleAccessInterface setAccessImpl,ObjectMapper objectMapper,Duration defaultTimeout) {
     	this.setAccessImpl=setAccessImpl;
     	this.objectMapper=objectMapper;
+    	this.defaultTimeout=defaultTimeout;
     }
     
     
@@ -42,15 +52,52 @@ public class Service {
 	 * @return
 	 */
 	public <A extends Appearance> A view(A a) {
+		return view(a,defaultDeadline());
+	}
+	
+	
+	/**
+	 * 表象展示（限定截止时间）
+	 * @param <A>
+	 * @param a
+	 * @param deadline 可为空
+	 * @return
+	 */
+	public <A extends Appearance> A view(A a,Deadline deadline) {
+		return view(a,deadline,null);
+	}
+	
+	
+	/**
+	 * 表象展示（读取作用域内）
+	 * @param <A>
+	 * @param a
+	 * @param scope 可为空
+	 * @return
+	 */
+	public <A extends Appearance> A view(A a,ReadScope scope) {
+		return view(a,defaultDeadline(),scope);
+	}
+	
+	
+	/**
+	 * 表象展示（读取作用域内，限定截止时间）
+	 * 作用域内已查询过的限定符复用其结果
+	 * @param <A>
+	 * @param a
+	 * @param deadline 可为空
+	 * @param scope 可为空
+	 * @return
+	 */
+	public <A extends Appearance> A view(A a,Deadline deadline,ReadScope scope) {
 		logger.info("initial a is {}:",toJson(a));
 		
 		//本原集获取
-		List<PrincipleSourceLane> relatedCollectionList=setAccessImpl.query(a.qualifiersLanes());
+		List<PrincipleSourceLane> relatedCollectionList=setAccessImpl.query(qualifiersLanes(a),deadline,scope);
 		
 		
 		//构造
-		@SuppressWarnings("unchecked")
-		A preAppearance=(A) a.construct(relatedCollectionList);
+		A preAppearance=construct(a,relatedCollectionList);
 		logger.info("preAppearance is {}:",toJson(preAppearance));
 
 
@@ -58,6 +105,63 @@ public class Service {
 	}
 	
 	
+	/**
+	 * 表象展示（异步）
+	 * 本原集获取全程不阻塞，构造在查询完成的线程上执行
+	 * @param <A>
+	 * @param a
+	 * @return
+	 */
+	public <A extends Appearance> CompletableFuture<A> viewAsync(A a) {
+		return viewAsync(a,defaultDeadline());
+	}
+	
+	
+	/**
+	 * 表象展示（异步，限定截止时间）
+	 * @param <A>
+	 * @param a
+	 * @param deadline 可为空
+	 * @return
+	 */
+	public <A extends Appearance> CompletableFuture<A> viewAsync(A a,Deadline deadline) {
+		return viewAsync(a,deadline,null);
+	}
+	
+	
+	/**
+	 * 表象展示（异步，读取作用域内）
+	 * @param <A>
+	 * @param a
+	 * @param scope 可为空
+	 * @return
+	 */
+	public <A extends Appearance> CompletableFuture<A> viewAsync(A a,ReadScope scope) {
+		return viewAsync(a,defaultDeadline(),scope);
+	}
+	
+	
+	/**
+	 * 表象展示（异步，读取作用域内，限定截止时间）
+	 * @param <A>
+	 * @param a
+	 * @param deadline 可为空
+	 * @param scope 可为空
+	 * @return
+	 */
+	public <A extends Appearance> CompletableFuture<A> viewAsync(A a,Deadline deadline,ReadScope scope) {
+		logger.info("initial a is {}:",toJson(a));
+		
+		//本原集获取
+		return setAccessImpl.queryAsync(qualifiersLanes(a),deadline,scope).thenApply(relatedCollectionList -> {
+			//构造
+			A preAppearance=construct(a,relatedCollectionList);
+			logger.info("preAppearance is {}:",toJson(preAppearance));
+			return preAppearance;
+		});
+	}
+	
+	
 	/**
 	 * 表象变换
 	 * @param <A>
@@ -66,12 +170,50 @@ public class Service {
 	 * @return
 	 */
 	public <A extends Appearance> MorphismResponse<A> process(A a){
+		return process(a,defaultDeadline());
+	}
+	
+	
+	/**
+	 * 表象变换（限定截止时间）
+	 * 获取与存储共用同一截止时间
+	 * @param <A>
+	 * @param a
+	 * @param deadline 可为空
+	 * @return
+	 */
+	public <A extends Appearance> MorphismResponse<A> process(A a,Deadline deadline){
+		return process(a,deadline,null);
+	}
+	
+	
+	/**
+	 * 表象变换（读取作用域内）
+	 * @param <A>
+	 * @param a
+	 * @param scope 可为空
+	 * @return
+	 */
+	public <A extends Appearance> MorphismResponse<A> process(A a,ReadScope scope){
+		return process(a,defaultDeadline(),scope);
+	}
+	
+	
+	/**
+	 * 表象变换（读取作用域内，限定截止时间）
+	 * 存储结束后（无论成败）作用域内已记住的结果全部失效，并记下一致性令牌，此后的读取能读到本次写入
+	 * @param <A>
+	 * @param a
+	 * @param deadline 可为空
+	 * @param scope 可为空
+	 * @return
+	 */
+	public <A extends Appearance> MorphismResponse<A> process(A a,Deadline deadline,ReadScope scope){
 		logger.info("initial a is {}:",toJson(a));
 		//本原集获取
-		List<PrincipleSourceLane> relatedCollectionList=setAccessImpl.query(a.qualifiersLanes());
+		List<PrincipleSourceLane> relatedCollectionList=setAccessImpl.query(qualifiersLanes(a),deadline,scope);
 		//构造
-		@SuppressWarnings("unchecked")
-		A preAppearance=(A) a.construct(relatedCollectionList);
+		A preAppearance=construct(a,relatedCollectionList);
 		logger.info("preAppearance is {}:",toJson(preAppearance));
 		
 		
@@ -86,9 +228,82 @@ public class Service {
 		//解构
 		ImagePackage imagePackage=postAppearance.deconstruct();
 		//本原集存储
-		ResponsePackage responsePackage=setAccessImpl.save(imagePackage);
+		ResponsePackage responsePackage=null;
+		try {
+			responsePackage=setAccessImpl.save(imagePackage,deadline);
+		} finally {
+			afterWrite(scope,responsePackage);
+		}
 		return new MorphismResponse<A>(postAppearance,responsePackage);
 	}
+	
+	
+	/**
+	 * 表象变换（异步）
+	 * 本原集获取与存储均不阻塞，构造/变换/解构在前一步完成的线程上执行
+	 * @param <A>
+	 * @param a
+	 * @return
+	 */
+	public <A extends Appearance> CompletableFuture<MorphismResponse<A>> processAsync(A a){
+		return processAsync(a,defaultDeadline());
+	}
+	
+	
+	/**
+	 * 表象变换（异步，限定截止时间）
+	 * @param <A>
+	 * @param a
+	 * @param deadline 可为空
+	 * @return
+	 */
+	public <A extends Appearance> CompletableFuture<MorphismResponse<A>> processAsync(A a,Deadline deadline){
+		return processAsync(a,deadline,null);
+	}
+	
+	
+	/**
+	 * 表象变换（异步，读取作用域内）
+	 * @param <A>
+	 * @param a
+	 * @param scope 可为空
+	 * @return
+	 */
+	public <A extends Appearance> CompletableFuture<MorphismResponse<A>> processAsync(A a,ReadScope scope){
+		return processAsync(a,defaultDeadline(),scope);
+	}
+	
+	
+	/**
+	 * 表象变换（异步，读取作用域内，限定截止时间）
+	 * 存储结束后（无论成败）作用域内已记住的结果全部失效，并记下一致性令牌，此后的读取能读到本次写入
+	 * @param <A>
+	 * @param a
+	 * @param deadline 可为空
+	 * @param scope 可为空
+	 * @return
+	 */
+	public <A extends Appearance> CompletableFuture<MorphismResponse<A>> processAsync(A a,Deadline deadline,ReadScope scope){
+		logger.info("initial a is {}:",toJson(a));
+		//本原集获取
+		return setAccessImpl.queryAsync(qualifiersLanes(a),deadline,scope).thenCompose(relatedCollectionList -> {
+			//构造
+			A preAppearance=construct(a,relatedCollectionList);
+			logger.info("preAppearance is {}:",toJson(preAppearance));
+			
+			//变换
+			@SuppressWarnings("unchecked")
+			A postAppearance=(A) preAppearance.transforms();
+			logger.info("postAppearance is {}:",toJson(postAppearance));
+			
+			//解构
+			ImagePackage imagePackage=postAppearance.deconstruct();
+			//本原集存储
+			return setAccessImpl.saveAsync(imagePackage,deadline)
+					.whenComplete((responsePackage, e) -> afterWrite(scope,responsePackage))
+					.thenApply(responsePackage -> new MorphismResponse<A>(postAppearance,responsePackage));
+		});
+	}
 
 
 	
@@ -99,6 +314,65 @@ public class Service {
 	
 	
 	
+	/**
+	 * 由默认整体时限得出的截止时间
+	 * @return 未配置时为null
+	 */
+	private Deadline defaultDeadline() {
+		return null==defaultTimeout?null:Deadline.after(defaultTimeout);
+	}
+	
+	
+	/**
+	 * 作用域内发生存储：已记住的结果失效，记下一致性令牌
+	 * @param scope 可为空
+	 * @param responsePackage 存储失败时为空（可能已部分写入，令牌取当前时刻）
+	 */
+	private void afterWrite(ReadScope scope,ResponsePackage responsePackage) {
+		if(null!=scope) {
+			long token=null==responsePackage||responsePackage.getConsistencyToken()<=0
+					?System.currentTimeMillis():responsePackage.getConsistencyToken();
+			scope.afterWrite(token);
+		}
+	}
+	
+	
+	/**
+	 * 构造，结束后关闭本原集中的流式列表（释放底层连接）
+	 * @param <A>
+	 * @param a
+	 * @param relatedCollectionList
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private <A extends Appearance> A construct(A a, List<PrincipleSourceLane> relatedCollectionList) {
+		try {
+			return (A) a.construct(relatedCollectionList);
+		} finally {
+			PrincipleStream.closeAll(relatedCollectionList);
+		}
+	}
+	
+	
+	/**
+	 * 查询泳道（以表象类作为批次依赖形态的缓存键）
+	 * @param a
+	 * @return
+	 */
+	private List<QualifiersLane> qualifiersLanes(Appearance a) {
+		List<QualifiersLane> qualifiersLanes=a.qualifiersLanes();
+		if(null!=qualifiersLanes) {
+			for (QualifiersLane qualifiersLane : qualifiersLanes) {
+				if(null!=qualifiersLane && null==qualifiersLane.getShapeKey()) {
+					qualifiersLane.setShapeKey(a.getClass());
+				}
+			}
+		}
+		return qualifiersLanes;
+	}
+	
+	
+	
 	//日志辅助
     private String toJson(Object obj) {
         try {